@@ -0,0 +1,96 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.google.common.io.Files;
+
+import com.jme3.scene.Spatial;
+
+import com.simsilica.jmec.AssetReader;
+
+/**
+ *  Measures AssetReader.loadModel() for generated glTF and GLB models,
+ *  including the texture loads and extras handling that go with them.
+ *
+ *  @author    Paul Speed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssetReaderBenchmark {
+
+    @Param({"gltf", "glb"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int nodeCount;
+
+    private File root;
+    private File model;
+    private AssetReader reader;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDir();
+        SceneGenerator gen = new SceneGenerator(42);
+        List<String> textures = gen.writeTextures(root, 8, 256);
+        model = gen.writeGltf(root, "model", "glb".equals(format), nodeCount, 4, 16, 32, textures);
+        reader = new AssetReader(root);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SceneGenerator.delete(root);
+    }
+
+    @Benchmark
+    public Spatial loadModel() {
+        // loadModel() clears the asset cache so every call is a cold load
+        return reader.loadModel(model);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.google.common.io.Files;
+
+import com.jme3.material.Material;
+import com.jme3.scene.*;
+
+import com.simsilica.jmec.*;
+
+/**
+ *  Measures AssetWriter.write() for a generated scene: copying texture
+ *  dependencies, rehoming their keys, writing generated j3m files, and
+ *  writing the j3o with the BinaryExporter.  Each invocation gets a fresh
+ *  scene because writing rehomes keys in place.  The target is reused
+ *  across invocations so the FileCopier is set to always copy; otherwise
+ *  the default timestamp check would skip every copy after the first.
+ *
+ *  @author    Paul Speed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssetWriterBenchmark {
+
+    @Param({"1000"})
+    public int nodeCount;
+
+    @Param({"false", "true"})
+    public boolean generateMaterials;
+
+    private File root;
+    private File target;
+    private SceneGenerator gen;
+    private List<String> textures;
+    private AssetReader reader;
+    private AssetWriter writer;
+    private ModelInfo info;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDir();
+        target = Files.createTempDir();
+        gen = new SceneGenerator(42);
+        textures = gen.writeTextures(root, 16, 256);
+        reader = new AssetReader(root);
+        writer = new AssetWriter();
+        writer.setTarget(target);
+        writer.setFileCopier(new FileCopier(FileCopier.Mode.COPY, FileCopier.Check.NONE));
+        writer.setAssetPath("Models/bench");
+    }
+
+    @Setup(Level.Invocation)
+    public void createModel() {
+        gen.reset();
+        Node scene = gen.createScene(reader.getAssetManager(), nodeCount, 4, 4, 32, textures);
+        info = new ModelInfo(root, "scene", scene);
+        if( generateMaterials ) {
+            Set<Material> materials = new HashSet<>();
+            for( Geometry geom : info.findAll(Geometry.class) ) {
+                if( materials.add(geom.getMaterial()) ) {
+                    info.generateMaterial(geom.getMaterial(), "materials/material-" + materials.size());
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SceneGenerator.delete(root);
+        SceneGenerator.delete(target);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        writer.write(info);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.io.Files;
+import com.google.gson.JsonObject;
+
+import com.jme3.scene.*;
+
+import com.simsilica.jmec.AssetReader;
+import com.simsilica.jmec.gltf.GltfExtrasLoader;
+
+/**
+ *  Measures the GltfExtrasLoader both in isolation, converting prepared
+ *  extras onto nodes, and as part of loading an extras-heavy glTF file.
+ *
+ *  @author    Paul Speed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GltfExtrasLoaderBenchmark {
+
+    @Param({"1000"})
+    public int nodeCount;
+
+    @Param({"8", "64"})
+    public int extrasPerNode;
+
+    private File root;
+    private File model;
+    private AssetReader reader;
+
+    private JsonObject[] extras;
+    private Node[] nodes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        SceneGenerator gen = new SceneGenerator(42);
+
+        extras = new JsonObject[nodeCount];
+        nodes = new Node[nodeCount];
+        for( int i = 0; i < nodeCount; i++ ) {
+            extras[i] = gen.createExtras(extrasPerNode);
+            nodes[i] = new Node("node-" + i);
+        }
+
+        // A file with a small shared mesh so that the load is dominated
+        // by node and extras processing
+        root = Files.createTempDir();
+        model = gen.writeGltf(root, "extras", false, nodeCount, extrasPerNode, 1, 1,
+                              Collections.<String>emptyList());
+        reader = new AssetReader(root);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SceneGenerator.delete(root);
+    }
+
+    @Benchmark
+    public void handleExtras( Blackhole bh ) {
+        GltfExtrasLoader loader = GltfExtrasLoader.INSTANCE;
+        for( int i = 0; i < nodeCount; i++ ) {
+            bh.consume(loader.handleExtras(null, "node", null, extras[i], nodes[i]));
+        }
+    }
+
+    @Benchmark
+    public Spatial loadModel() {
+        return reader.loadModel(model);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.google.common.io.Files;
+
+import com.jme3.scene.*;
+
+import com.simsilica.jmec.AssetReader;
+import com.simsilica.jmec.ModelInfo;
+
+/**
+ *  Measures the ModelInfo scene queries and the dependency discovery
+ *  done when a ModelInfo is created, on large generated scenes.
+ *
+ *  @author    Paul Speed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelInfoBenchmark {
+
+    @Param({"1000", "10000"})
+    public int nodeCount;
+
+    @Param({"4"})
+    public int geomsPerNode;
+
+    private File root;
+    private Node scene;
+    private ModelInfo info;
+    private String lastNode;
+    private String middleGeom;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDir();
+        SceneGenerator gen = new SceneGenerator(42);
+        List<String> textures = gen.writeTextures(root, 16, 16);
+        AssetReader reader = new AssetReader(root);
+        scene = gen.createScene(reader.getAssetManager(), nodeCount, 4, geomsPerNode, 32, textures);
+        info = new ModelInfo(root, "scene", scene);
+        lastNode = "node-" + (nodeCount - 1);
+        middleGeom = "geom-" + (nodeCount / 2) + "-0";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SceneGenerator.delete(root);
+    }
+
+    @Benchmark
+    public List<Spatial> findAllByName() {
+        return info.findAll(middleGeom);
+    }
+
+    @Benchmark
+    public List<Geometry> findAllByType() {
+        return info.findAll(Geometry.class);
+    }
+
+    @Benchmark
+    public Spatial findFirst() {
+        return info.findFirst(lastNode);
+    }
+
+    @Benchmark
+    public Geometry findFirstMissing() {
+        return info.findFirst("missing", Geometry.class);
+    }
+
+    @Benchmark
+    public ModelInfo findDependencies() {
+        return new ModelInfo(root, "scene", scene);
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec.bench;
+
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import javax.imageio.ImageIO;
+
+import com.google.common.io.Files;
+import com.google.gson.*;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.math.*;
+import com.jme3.scene.*;
+import com.jme3.scene.shape.Box;
+import com.jme3.texture.Texture;
+
+/**
+ *  Generates reproducible synthetic content for the benchmarks: noise
+ *  textures, glTF/GLB files with extras on every node, and large in-memory
+ *  jME scenes.  Everything is derived from the seed so that runs on different
+ *  machines measure the same data.
+ *
+ *  @author    Paul Speed
+ */
+public class SceneGenerator {
+
+    private static final int GLB_MAGIC = 0x46546C67;
+    private static final int GLB_JSON = 0x4E4F534A;
+    private static final int GLB_BIN = 0x004E4942;
+
+    private static final int FLOAT = 5126;
+    private static final int UNSIGNED_SHORT = 5123;
+    private static final int UNSIGNED_INT = 5125;
+
+    private final long seed;
+    private Random random;
+
+    public SceneGenerator( long seed ) {
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    /**
+     *  Resets the random source so that the next call generates the same
+     *  content as if it were the first call.
+     */
+    public void reset() {
+        this.random = new Random(seed);
+    }
+
+    /**
+     *  Writes 'count' PNG noise textures of the specified size to
+     *  root/textures and returns their asset names.
+     */
+    public List<String> writeTextures( File root, int count, int size ) throws IOException {
+        File dir = new File(root, "textures");
+        dir.mkdirs();
+        List<String> result = new ArrayList<>();
+        for( int i = 0; i < count; i++ ) {
+            BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            for( int y = 0; y < size; y++ ) {
+                for( int x = 0; x < size; x++ ) {
+                    img.setRGB(x, y, 0xff000000 | random.nextInt(0xffffff));
+                }
+            }
+            String name = "texture-" + i + ".png";
+            ImageIO.write(img, "png", new File(dir, name));
+            result.add("textures/" + name);
+        }
+        return result;
+    }
+
+    /**
+     *  Creates a scene with 'nodeCount' nodes arranged as a tree with
+     *  the specified branching factor.  Each node gets 'geomsPerNode' box
+     *  geometries that share 'materialCount' Lighting materials, each
+     *  material using one of the specified textures as its diffuse map.
+     *  Nodes are named "node-i" and geometries "geom-i-j".
+     */
+    public Node createScene( AssetManager assets, int nodeCount, int branching,
+                             int geomsPerNode, int materialCount, List<String> textures ) {
+        Material[] materials = new Material[materialCount];
+        Mesh[] meshes = new Mesh[materialCount];
+        for( int i = 0; i < materialCount; i++ ) {
+            Material mat = new Material(assets, "Common/MatDefs/Light/Lighting.j3md");
+            if( !textures.isEmpty() ) {
+                Texture tex = assets.loadTexture(textures.get(i % textures.size()));
+                mat.setTexture("DiffuseMap", tex);
+            }
+            mat.setColor("Diffuse", new ColorRGBA(random.nextFloat(), random.nextFloat(), random.nextFloat(), 1));
+            materials[i] = mat;
+            meshes[i] = new Box(0.5f + random.nextFloat(), 0.5f + random.nextFloat(), 0.5f + random.nextFloat());
+        }
+
+        Node root = new Node("root");
+        Node[] nodes = new Node[nodeCount];
+        for( int i = 0; i < nodeCount; i++ ) {
+            Node node = new Node("node-" + i);
+            node.setLocalTranslation(random.nextFloat() * 10, random.nextFloat() * 10, random.nextFloat() * 10);
+            for( int j = 0; j < geomsPerNode; j++ ) {
+                int m = random.nextInt(materialCount);
+                Geometry geom = new Geometry("geom-" + i + "-" + j, meshes[m]);
+                geom.setMaterial(materials[m]);
+                node.attachChild(geom);
+            }
+            nodes[i] = node;
+            if( i == 0 ) {
+                root.attachChild(node);
+            } else {
+                nodes[(i - 1) / branching].attachChild(node);
+            }
+        }
+        return root;
+    }
+
+    /**
+     *  Writes a glTF (or GLB when binary is true) model to root/name.gltf|glb
+     *  containing 'nodeCount' nodes, each with 'extrasPerNode' extras of mixed
+     *  types, referencing 'meshCount' grid meshes of 'gridSize' x 'gridSize'
+     *  quads.  Materials use the specified textures as base color textures.
+     */
+    public File writeGltf( File root, String name, boolean binary, int nodeCount, int extrasPerNode,
+                           int meshCount, int gridSize, List<String> textures ) throws IOException {
+
+        ByteArrayOutputStream bin = new ByteArrayOutputStream();
+        JsonArray bufferViews = new JsonArray();
+        JsonArray accessors = new JsonArray();
+        JsonArray meshes = new JsonArray();
+        JsonArray materials = new JsonArray();
+
+        for( int i = 0; i < meshCount; i++ ) {
+            JsonObject attributes = new JsonObject();
+            attributes.addProperty("POSITION", writeGridPositions(bin, bufferViews, accessors, gridSize));
+            attributes.addProperty("NORMAL", writeGridNormals(bin, bufferViews, accessors, gridSize));
+            attributes.addProperty("TEXCOORD_0", writeGridTexCoords(bin, bufferViews, accessors, gridSize));
+
+            JsonObject primitive = new JsonObject();
+            primitive.add("attributes", attributes);
+            primitive.addProperty("indices", writeGridIndexes(bin, bufferViews, accessors, gridSize));
+            primitive.addProperty("material", i);
+
+            JsonArray primitives = new JsonArray();
+            primitives.add(primitive);
+            JsonObject mesh = new JsonObject();
+            mesh.addProperty("name", "mesh-" + i);
+            mesh.add("primitives", primitives);
+            meshes.add(mesh);
+
+            JsonObject pbr = new JsonObject();
+            if( !textures.isEmpty() ) {
+                JsonObject texInfo = new JsonObject();
+                texInfo.addProperty("index", i % textures.size());
+                pbr.add("baseColorTexture", texInfo);
+            }
+            pbr.addProperty("metallicFactor", random.nextFloat());
+            pbr.addProperty("roughnessFactor", random.nextFloat());
+            JsonObject material = new JsonObject();
+            material.addProperty("name", "material-" + i);
+            material.add("pbrMetallicRoughness", pbr);
+            materials.add(material);
+        }
+
+        JsonArray images = new JsonArray();
+        JsonArray gltfTextures = new JsonArray();
+        for( int i = 0; i < textures.size(); i++ ) {
+            JsonObject image = new JsonObject();
+            image.addProperty("uri", textures.get(i));
+            images.add(image);
+            JsonObject texture = new JsonObject();
+            texture.addProperty("source", i);
+            gltfTextures.add(texture);
+        }
+
+        JsonArray nodes = new JsonArray();
+        JsonArray children = new JsonArray();
+        for( int i = 0; i < nodeCount; i++ ) {
+            JsonObject node = new JsonObject();
+            node.addProperty("name", "node-" + i);
+            node.addProperty("mesh", i % meshCount);
+            node.add("translation", toArray(random.nextFloat() * 10, random.nextFloat() * 10, random.nextFloat() * 10));
+            if( extrasPerNode > 0 ) {
+                node.add("extras", createExtras(extrasPerNode));
+            }
+            nodes.add(node);
+            children.add(new JsonPrimitive(i + 1));
+        }
+        JsonObject rootNode = new JsonObject();
+        rootNode.addProperty("name", name);
+        rootNode.add("children", children);
+        JsonArray allNodes = new JsonArray();
+        allNodes.add(rootNode);
+        allNodes.addAll(nodes);
+
+        String binName = name + ".bin";
+        JsonObject buffer = new JsonObject();
+        buffer.addProperty("byteLength", bin.size());
+        if( !binary ) {
+            buffer.addProperty("uri", binName);
+        }
+        JsonArray buffers = new JsonArray();
+        buffers.add(buffer);
+
+        JsonObject asset = new JsonObject();
+        asset.addProperty("version", "2.0");
+        asset.addProperty("generator", "jmec SceneGenerator");
+
+        JsonArray sceneNodes = new JsonArray();
+        sceneNodes.add(new JsonPrimitive(0));
+        JsonObject scene = new JsonObject();
+        scene.add("nodes", sceneNodes);
+        JsonArray scenes = new JsonArray();
+        scenes.add(scene);
+
+        JsonObject gltf = new JsonObject();
+        gltf.add("asset", asset);
+        gltf.addProperty("scene", 0);
+        gltf.add("scenes", scenes);
+        gltf.add("nodes", allNodes);
+        gltf.add("meshes", meshes);
+        gltf.add("materials", materials);
+        if( !textures.isEmpty() ) {
+            gltf.add("textures", gltfTextures);
+            gltf.add("images", images);
+        }
+        gltf.add("buffers", buffers);
+        gltf.add("bufferViews", bufferViews);
+        gltf.add("accessors", accessors);
+
+        byte[] json = new Gson().toJson(gltf).getBytes(StandardCharsets.UTF_8);
+        if( binary ) {
+            File result = new File(root, name + ".glb");
+            Files.write(toGlb(json, bin.toByteArray()), result);
+            return result;
+        }
+        File result = new File(root, name + ".gltf");
+        Files.write(json, result);
+        Files.write(bin.toByteArray(), new File(root, binName));
+        return result;
+    }
+
+    /**
+     *  Creates an extras object with 'count' properties cycling through
+     *  the value types that the GltfExtrasLoader converts.
+     */
+    public JsonObject createExtras( int count ) {
+        JsonObject extras = new JsonObject();
+        for( int i = 0; i < count; i++ ) {
+            String key = "prop-" + i;
+            switch( i % 6 ) {
+                case 0:
+                    extras.addProperty(key, random.nextInt(1000));
+                    break;
+                case 1:
+                    extras.addProperty(key, random.nextDouble() * 100);
+                    break;
+                case 2:
+                    extras.addProperty(key, "value-" + random.nextInt(1000));
+                    break;
+                case 3:
+                    extras.addProperty(key, random.nextBoolean());
+                    break;
+                case 4:
+                    extras.add(key, toArray(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat()));
+                    break;
+                default:
+                    JsonObject nested = new JsonObject();
+                    nested.addProperty("id", random.nextInt(1000));
+                    nested.addProperty("label", "nested-" + i);
+                    nested.add("values", toArray(random.nextFloat(), random.nextFloat()));
+                    extras.add(key, nested);
+                    break;
+            }
+        }
+        return extras;
+    }
+
+    /**
+     *  Recursively deletes the specified file or directory.
+     */
+    public static void delete( File file ) {
+        if( file == null || !file.exists() ) {
+            return;
+        }
+        File[] children = file.listFiles();
+        if( children != null ) {
+            for( File child : children ) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static JsonArray toArray( float... values ) {
+        JsonArray result = new JsonArray();
+        for( float f : values ) {
+            result.add(new JsonPrimitive(f));
+        }
+        return result;
+    }
+
+    private static byte[] toGlb( byte[] json, byte[] bin ) {
+        int jsonLength = pad(json.length);
+        int binLength = pad(bin.length);
+        ByteBuffer bb = ByteBuffer.allocate(12 + 8 + jsonLength + 8 + binLength).order(ByteOrder.LITTLE_ENDIAN);
+        bb.putInt(GLB_MAGIC).putInt(2).putInt(bb.capacity());
+        bb.putInt(jsonLength).putInt(GLB_JSON).put(json);
+        for( int i = json.length; i < jsonLength; i++ ) {
+            bb.put((byte)' ');
+        }
+        bb.putInt(binLength).putInt(GLB_BIN).put(bin);
+        return bb.array();
+    }
+
+    private static int pad( int length ) {
+        return (length + 3) & ~3;
+    }
+
+    private static int addAccessor( ByteArrayOutputStream bin, JsonArray bufferViews, JsonArray accessors,
+                                    ByteBuffer data, int componentType, int count, String type,
+                                    JsonArray min, JsonArray max ) {
+        int offset = bin.size();
+        bin.write(data.array(), 0, data.position());
+        for( int i = data.position(); i < pad(data.position()); i++ ) {
+            bin.write(0);
+        }
+
+        JsonObject view = new JsonObject();
+        view.addProperty("buffer", 0);
+        view.addProperty("byteOffset", offset);
+        view.addProperty("byteLength", data.position());
+        bufferViews.add(view);
+
+        JsonObject accessor = new JsonObject();
+        accessor.addProperty("bufferView", bufferViews.size() - 1);
+        accessor.addProperty("componentType", componentType);
+        accessor.addProperty("count", count);
+        accessor.addProperty("type", type);
+        if( min != null ) {
+            accessor.add("min", min);
+            accessor.add("max", max);
+        }
+        accessors.add(accessor);
+        return accessors.size() - 1;
+    }
+
+    private int writeGridPositions( ByteArrayOutputStream bin, JsonArray bufferViews, JsonArray accessors, int size ) {
+        int count = (size + 1) * (size + 1);
+        ByteBuffer bb = ByteBuffer.allocate(count * 12).order(ByteOrder.LITTLE_ENDIAN);
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for( int z = 0; z <= size; z++ ) {
+            for( int x = 0; x <= size; x++ ) {
+                float y = random.nextFloat() * 0.1f;
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+                bb.putFloat((float)x / size).putFloat(y).putFloat((float)z / size);
+            }
+        }
+        return addAccessor(bin, bufferViews, accessors, bb, FLOAT, count, "VEC3",
+                           toArray(0, minY, 0), toArray(1, maxY, 1));
+    }
+
+    private int writeGridNormals( ByteArrayOutputStream bin, JsonArray bufferViews, JsonArray accessors, int size ) {
+        int count = (size + 1) * (size + 1);
+        ByteBuffer bb = ByteBuffer.allocate(count * 12).order(ByteOrder.LITTLE_ENDIAN);
+        for( int i = 0; i < count; i++ ) {
+            bb.putFloat(0).putFloat(1).putFloat(0);
+        }
+        return addAccessor(bin, bufferViews, accessors, bb, FLOAT, count, "VEC3", null, null);
+    }
+
+    private int writeGridTexCoords( ByteArrayOutputStream bin, JsonArray bufferViews, JsonArray accessors, int size ) {
+        int count = (size + 1) * (size + 1);
+        ByteBuffer bb = ByteBuffer.allocate(count * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for( int z = 0; z <= size; z++ ) {
+            for( int x = 0; x <= size; x++ ) {
+                bb.putFloat((float)x / size).putFloat((float)z / size);
+            }
+        }
+        return addAccessor(bin, bufferViews, accessors, bb, FLOAT, count, "VEC2", null, null);
+    }
+
+    private int writeGridIndexes( ByteArrayOutputStream bin, JsonArray bufferViews, JsonArray accessors, int size ) {
+        int vertCount = (size + 1) * (size + 1);
+        int count = size * size * 6;
+        boolean shorts = vertCount <= 0xffff;
+        ByteBuffer bb = ByteBuffer.allocate(count * (shorts ? 2 : 4)).order(ByteOrder.LITTLE_ENDIAN);
+        for( int z = 0; z < size; z++ ) {
+            for( int x = 0; x < size; x++ ) {
+                int i = z * (size + 1) + x;
+                int[] quad = { i, i + size + 1, i + 1, i + 1, i + size + 1, i + size + 2 };
+                for( int index : quad ) {
+                    if( shorts ) {
+                        bb.putShort((short)index);
+                    } else {
+                        bb.putInt(index);
+                    }
+                }
+            }
+        }
+        return addAccessor(bin, bufferViews, accessors, bb, shorts ? UNSIGNED_SHORT : UNSIGNED_INT,
+                           count, "SCALAR", null, null);
+    }
+}
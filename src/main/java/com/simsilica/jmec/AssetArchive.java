@@ -0,0 +1,336 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.jar.*;
+import java.util.zip.*;
+
+import org.slf4j.*;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ *  A zip or jar file that the AssetWriter writes converted assets into
+ *  instead of a target directory.  Entries can be added from any number
+ *  of threads.  Generated content is buffered per entry (see openEntry())
+ *  and copied files are streamed in directly, so only one entry is ever
+ *  being written to the underlying ZipOutputStream at a time.
+ *
+ *  <p>Whether an entry is stored or deflated is decided by its file
+ *  extension.  By default, formats that are already compressed (png, jpg,
+ *  dds, etc.) are stored and everything else is deflated.  See setMethod().</p>
+ *
+ *  <p>The archive is written to a temporary file next to the target and
+ *  only moved into place by close().  Adding an entry after close() starts
+ *  a new archive that replaces the old one when it is closed.  If the same
+ *  entry is added more than once then the first one wins.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class AssetArchive implements Closeable {
+
+    static Logger log = LoggerFactory.getLogger(AssetArchive.class);
+
+    public static final String[] DEFAULT_STORED = {
+        "png", "jpg", "jpeg", "dds", "ktx", "gz", "zip", "jar", "ogg", "mp3"
+    };
+
+    private final File file;
+    private final Map<String, Integer> methods = new HashMap<>();
+    private int defaultMethod = ZipEntry.DEFLATED;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+
+    private File temp;
+    private ZipOutputStream out;
+    private final Map<String, Long> entries = new HashMap<>();
+
+    public AssetArchive( File file ) {
+        this.file = file;
+        for( String ext : DEFAULT_STORED ) {
+            methods.put(ext, ZipEntry.STORED);
+        }
+    }
+
+    /**
+     *  Returns true if the specified target looks like an archive, ie: it
+     *  has a .zip or .jar extension.
+     */
+    public static boolean isArchive( File target ) {
+        String name = target.getName().toLowerCase();
+        return name.endsWith(".zip") || name.endsWith(".jar");
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     *  Sets whether files with the specified extension are stored
+     *  (ZipEntry.STORED) or compressed (ZipEntry.DEFLATED) in the archive.
+     */
+    public synchronized void setMethod( String extension, int method ) {
+        methods.put(extension.toLowerCase(), checkMethod(method));
+    }
+
+    /**
+     *  Sets the method used for files whose extension has no method
+     *  of its own.  Defaults to ZipEntry.DEFLATED.
+     */
+    public synchronized void setDefaultMethod( int method ) {
+        this.defaultMethod = checkMethod(method);
+    }
+
+    public synchronized int getDefaultMethod() {
+        return defaultMethod;
+    }
+
+    /**
+     *  Sets the deflate level (0-9) for compressed entries.  Defaults to
+     *  Deflater.DEFAULT_COMPRESSION.
+     */
+    public synchronized void setLevel( int level ) {
+        this.level = level;
+        if( out != null ) {
+            out.setLevel(level);
+        }
+    }
+
+    public synchronized int getLevel() {
+        return level;
+    }
+
+    /**
+     *  Returns the method that will be used for the specified entry based
+     *  on its extension.
+     */
+    public synchronized int getMethod( String name ) {
+        int dot = name.lastIndexOf('.');
+        if( dot >= 0 && dot > name.lastIndexOf('/') ) {
+            Integer method = methods.get(name.substring(dot + 1).toLowerCase());
+            if( method != null ) {
+                return method;
+            }
+        }
+        return defaultMethod;
+    }
+
+    private static int checkMethod( int method ) {
+        if( method != ZipEntry.STORED && method != ZipEntry.DEFLATED ) {
+            throw new IllegalArgumentException("Unknown zip method:" + method);
+        }
+        return method;
+    }
+
+    public synchronized boolean contains( String name ) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     *  Returns the uncompressed size of the specified entry or -1 if
+     *  it has not been written.
+     */
+    public synchronized long getSize( String name ) {
+        Long size = entries.get(name);
+        return size == null ? -1 : size;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     *  Returns a path for the entry in the jar URL style, ie: "assets.jar!/foo.j3o",
+     *  suitable for logging and reports.
+     */
+    public String getEntryPath( String name ) {
+        return file.getPath() + "!/" + name;
+    }
+
+    /**
+     *  Returns a stream that buffers the entry's content and adds it to the
+     *  archive when closed, using the method for the entry's extension.
+     */
+    public OutputStream openEntry( String name ) {
+        return openEntry(name, getMethod(name));
+    }
+
+    /**
+     *  Returns a stream that buffers the entry's content and adds it to the
+     *  archive when closed using the specified method.
+     */
+    public OutputStream openEntry( String name, int method ) {
+        return new EntryStream(name, checkMethod(method));
+    }
+
+    /**
+     *  Adds the specified content as an entry.  Returns false if the entry
+     *  was already in the archive.
+     */
+    public boolean write( String name, byte[] data, int offset, int length, int method ) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if( method == ZipEntry.STORED ) {
+            CRC32 crc = new CRC32();
+            crc.update(data, offset, length);
+            entry.setSize(length);
+            entry.setCompressedSize(length);
+            entry.setCrc(crc.getValue());
+        }
+        synchronized( this ) {
+            if( !startEntry(entry) ) {
+                return false;
+            }
+            out.write(data, offset, length);
+            endEntry(name, length);
+        }
+        return true;
+    }
+
+    /**
+     *  Streams the source file into the archive as the specified entry.
+     *  Stored files are read twice, once to calculate their CRC before
+     *  taking the archive lock.  Returns false if the entry was already in
+     *  the archive.
+     */
+    public boolean copy( String name, File source ) throws IOException {
+        int method = getMethod(name);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        entry.setTime(source.lastModified());
+        long size = source.length();
+        if( method == ZipEntry.STORED ) {
+            if( contains(name) ) {
+                return false;
+            }
+            entry.setSize(size);
+            entry.setCompressedSize(size);
+            entry.setCrc(Files.hash(source, Hashing.crc32()).padToLong());
+        }
+        synchronized( this ) {
+            if( !startEntry(entry) ) {
+                return false;
+            }
+            Files.copy(source, out);
+            endEntry(name, size);
+        }
+        return true;
+    }
+
+    private boolean startEntry( ZipEntry entry ) throws IOException {
+        if( entries.containsKey(entry.getName()) ) {
+            log.info("Already in archive:" + getEntryPath(entry.getName()));
+            return false;
+        }
+        if( out == null ) {
+            open();
+        }
+        out.putNextEntry(entry);
+        return true;
+    }
+
+    private void endEntry( String name, long size ) throws IOException {
+        out.closeEntry();
+        entries.put(name, size);
+    }
+
+    private void open() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        log.info("Creating archive:" + file);
+        temp = File.createTempFile(file.getName(), ".tmp", parent);
+        OutputStream stream = new BufferedOutputStream(new FileOutputStream(temp), 65536);
+        if( file.getName().toLowerCase().endsWith(".jar") ) {
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            manifest.getMainAttributes().putValue("Created-By", "jmec " + BuildInfo.getVersion());
+            out = new JarOutputStream(stream, manifest);
+            entries.put(JarFile.MANIFEST_NAME, -1L);
+        } else {
+            out = new ZipOutputStream(stream);
+        }
+        out.setLevel(level);
+    }
+
+    /**
+     *  Finishes the archive and moves it into place.  Does nothing if no
+     *  entries have been added since the last close().
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if( out == null ) {
+            return;
+        }
+        try {
+            out.close();
+            java.nio.file.Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            log.info("Wrote " + entries.size() + " entries to archive:" + file);
+        } finally {
+            if( temp.exists() ) {
+                temp.delete();
+            }
+            out = null;
+            temp = null;
+            entries.clear();
+        }
+    }
+
+    private class EntryStream extends ByteArrayOutputStream {
+        private final String name;
+        private final int method;
+        private boolean closed;
+
+        public EntryStream( String name, int method ) {
+            super(65536);
+            this.name = name;
+            this.method = method;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if( closed ) {
+                return;
+            }
+            closed = true;
+            AssetArchive.this.write(name, buf, 0, count, method);
+        }
+    }
+}
@@ -40,16 +40,27 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.net.URL;
+import java.util.*;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import org.slf4j.*;
 
+import com.google.common.collect.MapMaker;
 import com.google.common.io.Files;
 
 import com.jme3.asset.*;
-import com.jme3.asset.plugins.FileLocator;
+import com.jme3.asset.cache.AssetCache;
 import com.jme3.scene.*;
+import com.jme3.scene.plugins.gltf.BinLoader;
+import com.jme3.scene.plugins.gltf.GlbLoader;
+import com.jme3.scene.plugins.gltf.GltfLoader;
+import com.jme3.texture.Image;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.texture.Texture;
 
-import com.simsilica.jmec.gltf.GltfExtrasLoader;
+import com.simsilica.jmec.gltf.*;
 
 /**
  *  Wraps an AssetManager with localized configuration for reading assets
@@ -64,7 +75,21 @@ public class AssetReader {
     static Logger log = LoggerFactory.getLogger(AssetReader.class);
 
     private Path root;
+    private SourceIndex sourceIndex;
+    private String locatorPath;
+    private Class<? extends AssetLocator> locatorType;
     private final DesktopAssetManager assets;
+    private final Set<File> loadedFiles = new LinkedHashSet<>();
+    private volatile Thread recordingThread;
+    private TextureCache textureCache;
+    private boolean placeholderTextures;
+    private boolean memoryMapped;
+    private final List<AssetKey<?>> placeholderKeys = new ArrayList<>();
+
+    // Image.equals() and hashCode() compare the image data so an identity
+    // based set is needed
+    private static final Set<Image> placeholderImages
+            = Collections.newSetFromMap(new MapMaker().weakKeys().<Image, Boolean>makeMap());
 
     public AssetReader() {
         this(new File("."));
@@ -80,19 +105,20 @@ public class AssetReader {
             log.info("Found assetConfig:" + assetConfig);
         }
 
-        this.assets = new DesktopAssetManager(assetConfig);
+        this.assets = new ReaderAssetManager(assetConfig);
+        this.assets.addAssetEventListener(new FileRecorder());
         setAssetRoot(assetRoot);
     }
 
     public AssetReader( File assetRoot, DesktopAssetManager assets ) {
         this.assets = assets;
+        this.assets.addAssetEventListener(new FileRecorder());
         setAssetRoot(assetRoot);
     }
 
     public void setAssetRoot( File assetRoot ) {
-        if (root != null) {
-            assets.unregisterLocator(root.toString(), FileLocator.class);
-        }
+        unregisterLocator();
+        sourceIndex = null;
         if (assetRoot == null) {
             root = null;
             return;
@@ -105,17 +131,156 @@ public class AssetReader {
         }
         log.info("Using source asset root:" + root);
 
-        assets.registerLocator(root.toString(), FileLocator.class);
+        registerLocator(root.toString(), FileAssetLocator.class);
+    }
+
+    /**
+     *  Sets an index of one or more source roots to find assets in instead
+     *  of a single asset root.  The first root of the index becomes the asset
+     *  root that models are loaded relative to and the others are searched
+     *  in order for the assets that the models reference, ie: shared texture
+     *  libraries.  The index can be shared with other AssetReaders.
+     */
+    public void setSourceIndex( SourceIndex sourceIndex ) {
+        if( sourceIndex == null ) {
+            setAssetRoot(null);
+            return;
+        }
+        unregisterLocator();
+        this.sourceIndex = sourceIndex;
+        this.root = sourceIndex.getPrimaryRoot().toPath();
+        log.info("Using source roots:" + sourceIndex.getRoots());
+
+        registerLocator(IndexedLocator.register(sourceIndex), IndexedLocator.class);
+    }
+
+    public SourceIndex getSourceIndex() {
+        return sourceIndex;
+    }
+
+    private void registerLocator( String path, Class<? extends AssetLocator> type ) {
+        assets.registerLocator(path, type);
+        this.locatorPath = path;
+        this.locatorType = type;
+    }
+
+    private void unregisterLocator() {
+        if( locatorPath != null ) {
+            assets.unregisterLocator(locatorPath, locatorType);
+            locatorPath = null;
+            locatorType = null;
+        }
     }
 
     public File getAssetRoot() {
         return root != null ? root.toFile() : null;
     }
 
+    /**
+     *  Returns the source file for the specified asset name, or null if there
+     *  is no such file in the asset root or source index.
+     */
+    public File findFile( String assetName ) {
+        if( sourceIndex != null ) {
+            return sourceIndex.findFile(assetName);
+        }
+        if( root == null ) {
+            return null;
+        }
+        File f = new File(root.toFile(), assetName);
+        return f.isFile() ? f : null;
+    }
+
+    /**
+     *  Sets a cache of decoded textures that is kept across models (and
+     *  can be shared with other AssetReaders) instead of reloading every
+     *  texture for every model.  Defaults to null.  Only supported when
+     *  the AssetReader created its own asset manager.
+     */
+    public void setTextureCache( TextureCache textureCache ) {
+        if( textureCache != null && !(assets instanceof ReaderAssetManager) ) {
+            log.warn("Texture cache not supported with a custom asset manager:" + assets);
+            return;
+        }
+        this.textureCache = textureCache;
+    }
+
+    public TextureCache getTextureCache() {
+        return textureCache;
+    }
+
+    /**
+     *  Set to true to give models placeholder textures instead of decoding
+     *  their images.  This is all that is needed to copy the textures and
+     *  rehome their keys and saves the time and (direct) memory of decoding
+     *  every image.  The placeholder has the real texture key, texture type,
+     *  and image size, where the size can be read from the file header,
+     *  but no image data.  Only textures loaded from files while loading
+     *  the model are replaced.  Scripts that need the pixels can load the
+     *  real texture with ModelAssets.loadTexture(texture.getKey()).
+     *  Defaults to false.  Only supported when the AssetReader created
+     *  its own asset manager.
+     */
+    public void setPlaceholderTextures( boolean placeholderTextures ) {
+        if( placeholderTextures && !(assets instanceof ReaderAssetManager) ) {
+            log.warn("Placeholder textures not supported with a custom asset manager:" + assets);
+            return;
+        }
+        this.placeholderTextures = placeholderTextures;
+    }
+
+    public boolean getPlaceholderTextures() {
+        return placeholderTextures;
+    }
+
+    /**
+     *  Returns true if the specified texture is a placeholder with no
+     *  image data.
+     */
+    public static boolean isPlaceholder( Texture texture ) {
+        return texture != null && placeholderImages.contains(texture.getImage());
+    }
+
+    /**
+     *  Set to true to load GLTF and GLB files by memory mapping the .glb file
+     *  and external .bin buffers instead of reading them onto the heap.
+     *  Mesh data is copied straight from the mapped files into the mesh
+     *  buffers, which avoids holding a second copy of every buffer on the
+     *  heap while loading large models.  Defaults to false.
+     */
+    public void setMemoryMapped( boolean memoryMapped ) {
+        if( this.memoryMapped == memoryMapped ) {
+            return;
+        }
+        this.memoryMapped = memoryMapped;
+        if( memoryMapped ) {
+            assets.registerLoader(MappedGltfLoader.class, "gltf");
+            assets.registerLoader(MappedGlbLoader.class, "glb");
+            assets.registerLoader(MappedBinLoader.class, "bin");
+        } else {
+            assets.registerLoader(GltfLoader.class, "gltf");
+            assets.registerLoader(GlbLoader.class, "glb");
+            assets.registerLoader(BinLoader.class, "bin");
+        }
+    }
+
+    public boolean getMemoryMapped() {
+        return memoryMapped;
+    }
+
     public DesktopAssetManager getAssetManager() {
         return assets;
     }
 
+    /**
+     *  Returns the files from the asset root that were requested while loading
+     *  the last model.  This includes the model file itself and any other files
+     *  that the model's loader pulled in (textures, GLTF .bin buffers, etc.).
+     */
+    public Set<File> getLoadedFiles() {
+        return Collections.unmodifiableSet(loadedFiles);
+    }
+
     public Spatial loadModel( File f ) {
         if (root == null) {
             throw new RuntimeException("Asset root is not set.");
@@ -141,15 +306,139 @@ public class AssetReader {
         // Make sure the cache is clear
         assets.clearCache();
 
-        // AssetManager doesn't really give us a better way to resolve types
-        // so we'll make some assumptions... it helps that we control the
-        // asset manager ourselves here.
-        String extension = Files.getFileExtension(f.getName());
-        if( "gltf".equalsIgnoreCase(extension) || "glb".equalsIgnoreCase(extension) ) {
-            // We do special setup for GLTF
-            return assets.loadModel(GltfExtrasLoader.createModelKey(path));
-        } else {
-            return assets.loadModel(path);
+        loadedFiles.clear();
+        loadedFiles.add(f);
+        // Only record requests from this thread because other threads may
+        // be using the same asset manager, ie: scripts in a ConvertPipeline.
+        recordingThread = Thread.currentThread();
+        placeholderKeys.clear();
+        try {
+            // AssetManager doesn't really give us a better way to resolve types
+            // so we'll make some assumptions... it helps that we control the
+            // asset manager ourselves here.
+            String extension = Files.getFileExtension(f.getName());
+            Spatial result;
+            if( "gltf".equalsIgnoreCase(extension) || "glb".equalsIgnoreCase(extension) ) {
+                // We do special setup for GLTF
+                result = assets.loadModel(GltfExtrasLoader.createModelKey(path));
+            } else {
+                result = assets.loadModel(path);
+            }
+            // Keep the placeholders out of the cache so that scripts
+            // loading the same textures get the real ones
+            for( AssetKey<?> key : placeholderKeys ) {
+                assets.deleteFromCache(key);
+            }
+            return result;
+        } finally {
+            recordingThread = null;
+            placeholderKeys.clear();
+        }
+    }
+
+    /**
+     *  Checks the texture cache before loading textures that come from the
+     *  asset manager's regular loadAsset() path.  Textures loaded from streams,
+     *  like embedded GLTF images, have no cache and are always loaded.
+     */
+    private class ReaderAssetManager extends DesktopAssetManager {
+
+        public ReaderAssetManager( URL assetConfig ) {
+            super(assetConfig);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <T> T loadLocatedAsset( AssetKey<T> key, AssetInfo info,
+                                          AssetProcessor proc, AssetCache cache ) {
+            if( cache == null || !(key instanceof TextureKey) ) {
+                return super.loadLocatedAsset(key, info, proc, cache);
+            }
+            TextureKey texKey = (TextureKey)key;
+            File file;
+            if( info instanceof FileAssetLocator.FileAssetInfo ) {
+                file = ((FileAssetLocator.FileAssetInfo)info).getFile();
+            } else {
+                file = findFile(key.getName());
+            }
+            if( placeholderTextures && file != null && Thread.currentThread() == recordingThread
+                && texKey.getTextureTypeHint() != Texture.Type.CubeMap ) {
+                T result = (T)createPlaceholder(texKey, file, proc);
+                placeholderKeys.add(key);
+                cache.addToCache(key, result);
+                return result;
+            }
+            TextureCache shared = textureCache;
+            if( shared == null ) {
+                return super.loadLocatedAsset(key, info, proc, cache);
+            }
+            Texture tex = shared.get(texKey, file);
+            if( tex != null ) {
+                // Same as the super class would have done after loading
+                T result = (T)tex;
+                cache.addToCache(key, result);
+                return result;
+            }
+            T result = super.loadLocatedAsset(key, info, proc, cache);
+            shared.put(texKey, file, (Texture)result);
+            return result;
+        }
+    }
+
+    /**
+     *  Creates a texture with no image data for the specified key, using
+     *  the key's normal processor so that the texture type and filtering
+     *  match what a real load would have produced.
+     */
+    protected Texture createPlaceholder( TextureKey key, File file, AssetProcessor proc ) {
+        log.debug("Creating placeholder for:" + key);
+        Image image = new Image();
+        image.setFormat(Image.Format.RGBA8);
+        // Same as the image loaders
+        image.setColorSpace(ColorSpace.sRGB);
+        image.setWidth(1);
+        image.setHeight(1);
+        try( ImageInputStream in = ImageIO.createImageInputStream(file) ) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if( readers != null && readers.hasNext() ) {
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(in, true, true);
+                    image.setWidth(reader.getWidth(0));
+                    image.setHeight(reader.getHeight(0));
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } catch( IOException e ) {
+            log.warn("Unable to read image size from:" + file, e);
+        }
+        placeholderImages.add(image);
+        return (Texture)proc.postProcess(key, image);
+    }
+
+    /**
+     *  Keeps track of the asset root files that are requested while
+     *  loading a model.
+     */
+    private class FileRecorder implements AssetEventListener {
+        @Override
+        public void assetLoaded( AssetKey key ) {
+        }
+
+        @Override
+        public void assetRequested( AssetKey key ) {
+            if( Thread.currentThread() != recordingThread || root == null ) {
+                return;
+            }
+            File f = findFile(key.getName());
+            if( f != null ) {
+                loadedFiles.add(f);
+            }
+        }
+
+        @Override
+        public void assetDependencyNotFound( AssetKey parentKey, AssetKey dependentAssetKey ) {
         }
     }
 }
@@ -39,30 +39,48 @@ package com.simsilica.jmec;
 import java.io.*;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
 
 import org.slf4j.*;
 
-import com.google.common.io.Files;
-
 import com.jme3.asset.*;
 import com.jme3.export.binary.BinaryExporter;
 import com.jme3.material.*;
 import com.jme3.scene.*;
+import com.jme3.texture.Texture;
 import com.jme3.material.plugin.export.material.J3MExporter;
 
 /**
  *  Writes an asset to a target directory structure, copying or
- *  saving its dependencies as required.
+ *  saving its dependencies as required.  If there is an AssetArchive
+ *  then everything is written into the archive instead and the target
+ *  is only used to build the (virtual) file paths of the entries.
  *
  *  @author    Paul Speed
  */
 public class AssetWriter implements ModelProcessor {
     static Logger log = LoggerFactory.getLogger(AssetWriter.class);
 
-    private static J3MExporter j3mExporter = new J3MExporter();
+    // The J3MExporter keeps state during export so each thread that
+    // writes materials gets its own
+    private static final ThreadLocal<J3MExporter> j3mExporter = new ThreadLocal<J3MExporter>() {
+            @Override
+            protected J3MExporter initialValue() {
+                return new J3MExporter();
+            }
+        };
 
     private File target;
     private String assetPath;
+    private CopyRegistry copyRegistry;
+    private FileCopier fileCopier = new FileCopier();
+    private Executor copyExecutor;
+    private int compressionLevel;
+    private AssetArchive archive;
+    private ContentStore contentStore;
+    private TextureEncoder textureEncoder;
 
     public AssetWriter() {
     }
@@ -75,6 +93,122 @@ public class AssetWriter implements ModelProcessor {
         this.assetPath = path;
     }
 
+    /**
+     *  Sets a registry of the files already copied during this run so that
+     *  dependencies shared by many models are only copied once.  Defaults
+     *  to null which copies every dependency of every model.
+     */
+    public void setCopyRegistry( CopyRegistry copyRegistry ) {
+        this.copyRegistry = copyRegistry;
+    }
+
+    public CopyRegistry getCopyRegistry() {
+        return copyRegistry;
+    }
+
+    /**
+     *  Sets the FileCopier used to copy dependencies to the target.  The
+     *  default copier copies file contents and skips targets that already
+     *  have the same size and last modified time as the source.
+     */
+    public void setFileCopier( FileCopier fileCopier ) {
+        this.fileCopier = fileCopier;
+    }
+
+    public FileCopier getFileCopier() {
+        return fileCopier;
+    }
+
+    /**
+     *  Sets the executor that copies dependency files so that a model's
+     *  dependencies can be copied in parallel with each other and with
+     *  writing its generated dependencies.  Defaults to null, which copies
+     *  them one at a time on the writing thread.
+     */
+    public void setCopyExecutor( Executor copyExecutor ) {
+        this.copyExecutor = copyExecutor;
+    }
+
+    public Executor getCopyExecutor() {
+        return copyExecutor;
+    }
+
+    /**
+     *  Sets the GZIP compression level (1-9) for the written j3o files or 0
+     *  to write them uncompressed.  Compressed j3o files keep the .j3o
+     *  extension and must be loaded with CompressedJ3oLoader.  Blocks of each
+     *  file are compressed in parallel on the copy executor when there is one.
+     *  Defaults to 0.
+     */
+    public void setCompressionLevel( int compressionLevel ) {
+        if( compressionLevel < 0 || compressionLevel > 9 ) {
+            throw new IllegalArgumentException("Compression level must be 0-9:" + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     *  Sets the zip or jar archive that the converted assets are written
+     *  into.  The target should then be the archive file itself.  Defaults
+     *  to null, which writes loose files under the target directory.
+     */
+    public void setArchive( AssetArchive archive ) {
+        this.archive = archive;
+    }
+
+    public AssetArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     *  Sets a store that decides the target paths of copied dependencies
+     *  by their content instead of their names, so that identical files are
+     *  copied once and share the same asset key.  Content paths are relative
+     *  to the target and ignore the asset path.  Defaults to null, which
+     *  copies dependencies to their own names under the asset path.
+     */
+    public void setContentStore( ContentStore contentStore ) {
+        this.contentStore = contentStore;
+    }
+
+    public ContentStore getContentStore() {
+        return contentStore;
+    }
+
+    /**
+     *  Sets an encoder that scales texture dependencies down and/or converts
+     *  them to DDS instead of copying them as-is.  Their keys are rehomed to
+     *  the encoded file.  Textures are encoded on the copy executor.
+     *  Defaults to null, which copies textures unchanged.
+     */
+    public void setTextureEncoder( TextureEncoder textureEncoder ) {
+        this.textureEncoder = textureEncoder;
+    }
+
+    public TextureEncoder getTextureEncoder() {
+        return textureEncoder;
+    }
+
+    /**
+     *  Creates a fixed size pool of daemon threads suitable for passing
+     *  to setCopyExecutor().
+     */
+    public static ExecutorService createCopyExecutor( int threadCount ) {
+        final AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+                @Override
+                public Thread newThread( Runnable r ) {
+                    Thread t = new Thread(r, "jmec-io-" + count.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+    }
+
     protected String toTargetPath( AssetKey key ) {
         if( assetPath != null ) {
             return assetPath + "/" + key.getName();
@@ -89,6 +223,75 @@ public class AssetWriter implements ModelProcessor {
         return path;
     }
 
+    /**
+     *  Returns the file that the j3o for the specified model will be
+     *  written to.
+     */
+    public File getTargetFile( ModelInfo info ) {
+        return new File(target, toTargetPath(info.getModelName() + ".j3o"));
+    }
+
+    /**
+     *  Returns the files written for the model's generated and copied
+     *  dependencies.  This is only valid after write() because their keys
+     *  are rehomed to their target paths while writing.
+     */
+    public List<File> getDependencyTargets( ModelInfo info ) {
+        Set<File> result = new LinkedHashSet<>();
+        for( ModelInfo.Dependency dep : info.getDependencies() ) {
+            result.add(new File(target, dep.getKey().getName()));
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     *  Returns the archive entry name for a file under the target.
+     */
+    protected String toEntryName( File file ) {
+        String root = target.getPath() + File.separator;
+        String path = file.getPath();
+        if( !path.startsWith(root) ) {
+            throw new IllegalArgumentException("File is not under the target:" + file);
+        }
+        return path.substring(root.length()).replace(File.separatorChar, '/');
+    }
+
+    /**
+     *  Opens the file for writing, or the archive entry for the file if
+     *  there is an archive.
+     */
+    protected OutputStream openOutput( File file ) throws IOException {
+        if( archive != null ) {
+            return archive.openEntry(toEntryName(file));
+        }
+        file.getParentFile().mkdirs();
+        return new FileOutputStream(file);
+    }
+
+    /**
+     *  Like openOutput(File) but archive entries use the specified zip method
+     *  instead of the archive's method for the file's extension.
+     */
+    protected OutputStream openOutput( File file, int method ) throws IOException {
+        if( archive != null ) {
+            return archive.openEntry(toEntryName(file), method);
+        }
+        return openOutput(file);
+    }
+
+    /**
+     *  Records the write of the file, or its archive entry, in the model's
+     *  report.
+     */
+    protected void addWrite( ModelInfo info, String type, File file, long nanos ) {
+        if( archive != null ) {
+            String name = toEntryName(file);
+            info.getReport().addWrite(type, archive.getEntryPath(name), archive.getSize(name), nanos);
+        } else {
+            info.getReport().addWrite(type, file, nanos);
+        }
+    }
+
     @Override
     public void apply( ModelInfo info ) {
         try {
@@ -100,21 +303,41 @@ public class AssetWriter implements ModelProcessor {
 
     public void write( ModelInfo info ) throws IOException {
 
-        // Write the real file dependencies first, rehoming their keys as necessary.
+        // Start copying the real file dependencies first, rehoming their
+        // keys as necessary.  The rehomed key does not depend on the copy
+        // so nothing below needs to wait for the copies except the j3o.
+        List<Future<?>> copies = new ArrayList<>();
+        Set<File> copyTargets = new HashSet<>();
+        Set<Object> fixedTextures = getFixedTextures(info);
         for( ModelInfo.Dependency dep : info.getDependencies() ) {
             if( dep.getSourceFile() == null ) {
                 // It's a generated asset
                 continue;
             }
             AssetKey key = dep.getKey();
-
-            String path = toTargetPath(key);
+            boolean fixed = !Collections.disjoint(fixedTextures, dep.getInstances());
+            boolean encode = textureEncoder != null
+                             && textureEncoder.accepts(dep.getSourceFile(), key)
+                             && !fixed;
+
+            String path;
+            if( contentStore != null && contentStore.accepts(key) && !fixed ) {
+                path = contentStore.getPath(dep.getSourceFile(), key);
+            } else {
+                path = toTargetPath(key);
+            }
+            if( encode ) {
+                path = textureEncoder.getTargetPath(path);
+            }
             File f = new File(target, path);
-            f.getParentFile().mkdirs();
+            if( archive == null ) {
+                f.getParentFile().mkdirs();
+            }
 
-            if( dep.getSourceFile() != null ) {
-                log.info("Copying:" + dep.getSourceFile() + " to:" + f);
-                Files.copy(dep.getSourceFile(), f);
+            // Different dependencies can have the same content or the
+            // same file under different keys but only need copying once
+            if( copyTargets.add(f) ) {
+                copies.add(submitCopy(info, dep.getSourceFile(), f, encode));
             }
 
             // Set the new target to the dependency's key so that when
@@ -124,9 +347,10 @@ public class AssetWriter implements ModelProcessor {
             dep.setKey(newKey);
         }
 
-        // Then generate the generated assets after writing the real file
-        // assets... because the generated assets may need the updated keys from
-        // the first loop.
+        // Then rehome the keys of all of the generated assets before generating
+        // any of them because the generated assets may refer to each other, ie:
+        // a linked submodel using a generated material.
+        Map<ModelInfo.Dependency, File> generated = new LinkedHashMap<>();
         for( ModelInfo.Dependency dep : info.getDependencies() ) {
             if( dep.getSourceFile() != null ) {
                 // It's a real file asset
@@ -138,28 +362,337 @@ public class AssetWriter implements ModelProcessor {
             AssetKey newKey = rehome(path, key);
 
             File f = new File(target, path);
-            f.getParentFile().mkdirs();
+            if( archive == null ) {
+                f.getParentFile().mkdirs();
+            }
 
             // Set the new target to the dependency's key so that when
             // we write out the outer .j3o it will know about the new location.
             //log.info("...setting key to:" + newKey);
             dep.setKey(newKey);
-
-            generateDependency(f, dep);
+            generated.put(dep, f);
         }
+        generateDependencies(info, generated);
+
+        // The j3o is written last so that it only exists if all of its
+        // dependencies were written successfully.
+        waitForCopies(copies);
 
         // Write the j3o
-        File outFile = new File(target, toTargetPath(info.getModelName() + ".j3o"));
+        File outFile = getTargetFile(info);
         log.info("Writing:" + outFile);
-        BinaryExporter.getInstance().save(info.getModelRoot(), outFile);
+        long start = System.nanoTime();
+        writeJ3o(info, info.getModelRoot(), outFile, copyExecutor);
+        addWrite(info, "j3o", outFile, System.nanoTime() - start);
     }
 
-    protected void generateDependency( File file, ModelInfo.Dependency dep ) throws IOException {
+    /**
+     *  Writes the spatial as a j3o file, compressed if there is a compression
+     *  level set.  Blocks are compressed on the specified executor or on
+     *  this thread if it is null.
+     */
+    protected void writeJ3o( ModelInfo info, Spatial spatial, File file, Executor executor ) throws IOException {
+        if( compressionLevel == 0 ) {
+            try( OutputStream out = openOutput(file) ) {
+                BinaryExporter.getInstance().save(spatial, out);
+            }
+            return;
+        }
+        long raw;
+        // No point deflating the already compressed data again in an archive
+        try( ParallelGzipOutputStream out = new ParallelGzipOutputStream(openOutput(file, ZipEntry.STORED),
+                                                                         compressionLevel, executor) ) {
+            BinaryExporter.getInstance().save(spatial, out);
+            out.close();
+            raw = out.getSize();
+        }
+        long compressed = archive != null ? archive.getSize(toEntryName(file)) : file.length();
+        log.info(String.format("Compressed %s from %d to %d bytes (%.1f%%)", file.getName(), raw, compressed,
+                               raw > 0 ? compressed * 100.0 / raw : 100.0));
+        info.getReport().addCompression(raw, compressed);
+    }
+
+    /**
+     *  Generates the specified dependencies, on the copy executor if there
+     *  is one.  Materials and other leaf assets are independent of each
+     *  other and are all generated at once.  Linked submodels are written
+     *  innermost first because writing one replaces its content with just
+     *  a key, and that has to happen before any submodel containing it is
+     *  written.  Submodels at the same depth that share meshes or images
+     *  are written one after the other because BinaryExporter moves the
+     *  position of the buffers it writes.
+     */
+    protected void generateDependencies( ModelInfo info, Map<ModelInfo.Dependency, File> generated ) throws IOException {
+        List<Future<?>> tasks = new ArrayList<>();
+        Map<AssetLinkNode, ModelInfo.Dependency> links = new IdentityHashMap<>();
+        for( Map.Entry<ModelInfo.Dependency, File> e : generated.entrySet() ) {
+            ModelInfo.Dependency dep = e.getKey();
+            CloneableSmartAsset asset = dep.getInstances().get(0);
+            if( asset instanceof AssetLinkNode ) {
+                links.put((AssetLinkNode)asset, dep);
+            } else {
+                tasks.add(submitGenerate(info, e.getValue(), dep));
+            }
+        }
+
+        // Group the linked submodels by how many other generated links
+        // they are nested in
+        TreeMap<Integer, List<AssetLinkNode>> byDepth = new TreeMap<>(Collections.reverseOrder());
+        for( AssetLinkNode link : links.keySet() ) {
+            int depth = 0;
+            for( Node parent = link.getParent(); parent != null; parent = parent.getParent() ) {
+                if( parent instanceof AssetLinkNode && links.containsKey(parent) ) {
+                    depth++;
+                }
+            }
+            List<AssetLinkNode> list = byDepth.get(depth);
+            if( list == null ) {
+                list = new ArrayList<>();
+                byDepth.put(depth, list);
+            }
+            list.add(link);
+        }
+
+        try {
+            for( List<AssetLinkNode> level : byDepth.values() ) {
+                List<AssetLinkNode> remaining = new ArrayList<>(level);
+                while( !remaining.isEmpty() ) {
+                    // Collect the submodels that don't share buffers with
+                    // each other and write those together
+                    Set<Object> used = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+                    List<Future<?>> wave = new ArrayList<>();
+                    for( Iterator<AssetLinkNode> it = remaining.iterator(); it.hasNext(); ) {
+                        AssetLinkNode link = it.next();
+                        Set<Object> buffers = getBufferOwners(link);
+                        if( !wave.isEmpty() && !Collections.disjoint(used, buffers) ) {
+                            continue;
+                        }
+                        used.addAll(buffers);
+                        ModelInfo.Dependency dep = links.get(link);
+                        wave.add(submitGenerate(info, generated.get(dep), dep));
+                        it.remove();
+                    }
+                    waitFor(wave, "Error generating dependencies");
+                }
+            }
+        } finally {
+            waitFor(tasks, "Error generating dependencies");
+        }
+    }
+
+    /**
+     *  Returns the meshes and images in the link's subgraph.
+     */
+    private Set<Object> getBufferOwners( AssetLinkNode link ) {
+        final Set<Object> result = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        link.depthFirstTraversal(new SceneGraphVisitorAdapter() {
+                @Override
+                public void visit( Geometry geom ) {
+                    result.add(geom.getMesh());
+                    Material m = geom.getMaterial();
+                    if( m == null ) {
+                        return;
+                    }
+                    for( MatParam mp : m.getParams() ) {
+                        if( mp.getValue() instanceof Texture ) {
+                            result.add(((Texture)mp.getValue()).getImage());
+                        }
+                    }
+                }
+            });
+        result.remove(null);
+        return result;
+    }
+
+    /**
+     *  Generates the dependency on the copy executor, or immediately if there
+     *  is no copy executor, and returns the Future for it.
+     */
+    protected Future<?> submitGenerate( final ModelInfo info, final File file, final ModelInfo.Dependency dep ) {
+        FutureTask<Void> task = new FutureTask<>(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    long start = System.nanoTime();
+                    generateDependency(info, file, dep);
+                    addWrite(info, getGeneratedType(dep), file, System.nanoTime() - start);
+                    return null;
+                }
+            });
+        if( copyExecutor == null ) {
+            task.run();
+        } else {
+            copyExecutor.execute(task);
+        }
+        return task;
+    }
+
+    /**
+     *  Returns the report type for a generated dependency.
+     */
+    protected String getGeneratedType( ModelInfo.Dependency dep ) {
+        CloneableSmartAsset asset = dep.getInstances().get(0);
+        if( asset instanceof Material ) {
+            return "j3m";
+        } else if( asset instanceof AssetLinkNode ) {
+            return "linked j3o";
+        }
+        return asset.getClass().getSimpleName();
+    }
+
+    /**
+     *  Returns the textures used by materials that are copied from their own
+     *  j3m files.  Those j3m files refer to the textures by their original
+     *  names so the textures can't be encoded or moved to new files.  The set uses
+     *  identity because textures that are equal can still have different keys.
+     */
+    private Set<Object> getFixedTextures( ModelInfo info ) {
+        Set<Object> result = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        if( textureEncoder == null && contentStore == null ) {
+            return result;
+        }
+        for( ModelInfo.Dependency dep : info.getDependencies() ) {
+            if( dep.getSourceFile() == null ) {
+                continue;
+            }
+            for( CloneableSmartAsset asset : dep.getInstances() ) {
+                if( !(asset instanceof Material) ) {
+                    continue;
+                }
+                for( MatParam mp : ((Material)asset).getParams() ) {
+                    if( mp.getValue() instanceof Texture ) {
+                        result.add(mp.getValue());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Copies the dependency on the copy executor, or immediately if there
+     *  is no copy executor, and returns the Future for the copy.
+     */
+    protected Future<?> submitCopy( ModelInfo info, File source, File target ) {
+        return submitCopy(info, source, target, false);
+    }
+
+    /**
+     *  Like submitCopy(info, source, target) but encodes the texture with
+     *  the TextureEncoder first if 'encode' is true.
+     */
+    protected Future<?> submitCopy( final ModelInfo info, final File source, final File target,
+                                    final boolean encode ) {
+        FutureTask<Void> task = new FutureTask<>(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    copyDependency(info, source, target, encode);
+                    return null;
+                }
+            });
+        if( copyExecutor == null ) {
+            task.run();
+        } else {
+            copyExecutor.execute(task);
+        }
+        return task;
+    }
+
+    /**
+     *  Waits for all of the specified copies to finish and rethrows the
+     *  first error if any of them failed.
+     */
+    protected void waitForCopies( List<Future<?>> copies ) throws IOException {
+        waitFor(copies, "Error copying dependencies");
+    }
+
+    private void waitFor( List<Future<?>> tasks, String message ) throws IOException {
+        Throwable error = null;
+        for( Future<?> copy : tasks ) {
+            try {
+                copy.get();
+            } catch( InterruptedException e ) {
+                throw new InterruptedIOException("Interrupted waiting for dependencies");
+            } catch( ExecutionException e ) {
+                if( error == null ) {
+                    error = e.getCause();
+                }
+            }
+        }
+        if( error instanceof IOException ) {
+            throw (IOException)error;
+        } else if( error instanceof RuntimeException ) {
+            throw (RuntimeException)error;
+        } else if( error instanceof Error ) {
+            throw (Error)error;
+        } else if( error != null ) {
+            throw new IOException(message, error);
+        }
+    }
+
+    /**
+     *  Copies a dependency's source file to the target unless the copy
+     *  registry says it has already been copied during this run.
+     */
+    protected void copyDependency( ModelInfo info, File source, File target ) throws IOException {
+        copyDependency(info, source, target, false);
+    }
+
+    /**
+     *  Like copyDependency(info, source, target) but copies the texture
+     *  encoded by the TextureEncoder if 'encode' is true.
+     */
+    protected void copyDependency( ModelInfo info, File source, File target, boolean encode ) throws IOException {
+        if( copyRegistry != null ) {
+            try {
+                if( !copyRegistry.claim(source, target) ) {
+                    log.info("Already copied:" + source + " to:" + target);
+                    return;
+                }
+            } catch( InterruptedException e ) {
+                throw new InterruptedIOException("Interrupted waiting for copy of:" + source);
+            }
+        }
+        boolean success = false;
+        try {
+            long start = System.nanoTime();
+            if( encode ) {
+                File encoded = textureEncoder.encode(source);
+                log.info("Copying:" + encoded + " encoded from:" + source + " to:" + target);
+                if( copyFile(encoded, target) ) {
+                    addWrite(info, "texture", target, System.nanoTime() - start);
+                }
+            } else {
+                log.info("Copying:" + source + " to:" + target);
+                if( copyFile(source, target) ) {
+                    addWrite(info, "copy", target, System.nanoTime() - start);
+                }
+            }
+            success = true;
+        } finally {
+            if( copyRegistry != null ) {
+                copyRegistry.complete(target, success);
+            }
+        }
+    }
+
+    /**
+     *  Copies the source file to the target using the current FileCopier,
+     *  or streams it into the archive if there is one.  Returns false if the
+     *  target was already up to date or already in the archive.
+     */
+    protected boolean copyFile( File source, File target ) throws IOException {
+        if( archive != null ) {
+            return archive.copy(toEntryName(target), source);
+        }
+        return fileCopier.copy(source, target);
+    }
+
+    protected void generateDependency( ModelInfo info, File file, ModelInfo.Dependency dep ) throws IOException {
         CloneableSmartAsset asset = dep.getInstances().get(0); // should always be at least one
         if( asset instanceof Material ) {
             writeJ3m(file, dep, (Material)asset);
         } else if( asset instanceof AssetLinkNode ) {
-            writeLinkedAsset(file, dep, (AssetLinkNode)asset);
+            writeLinkedAsset(info, file, dep, (AssetLinkNode)asset);
         } else {
             throw new UnsupportedOperationException("Type not supported for generation:" + asset);
         }
@@ -167,10 +700,12 @@ public class AssetWriter implements ModelProcessor {
 
     protected void writeJ3m( File file, ModelInfo.Dependency dep, Material material ) throws IOException {
         log.info("Writing material:" + file);
-        j3mExporter.save(material, file);
+        try( OutputStream out = openOutput(file) ) {
+            j3mExporter.get().save(material, out);
+        }
     }
 
-    protected void writeLinkedAsset( File file, ModelInfo.Dependency dep, AssetLinkNode link ) throws IOException {
+    protected void writeLinkedAsset( ModelInfo info, File file, ModelInfo.Dependency dep, AssetLinkNode link ) throws IOException {
         log.info("Writing linked asset:" + file + "  for key:" + dep.getKey());
 
         // See ModelInfo.extractSubmodel() for an overview of the
@@ -186,7 +721,9 @@ public class AssetWriter implements ModelProcessor {
 
         // Our swap-out AssetLinkNodes will only have one child... the dependency.
         Spatial child = link.getChildren().get(0);
-        BinaryExporter.getInstance().save(child, file);
+        // Linked assets may be written on the copy threads themselves so
+        // they can't wait for other work on the copy executor
+        writeJ3o(info, child, file, null);
 
         // Make sure the AssetLinkNode knows about the child's latest rehomed key
         link.detachLinkedChildren();
@@ -0,0 +1,163 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.*;
+
+/**
+ *  Converts models on a set of worker threads.  Each worker gets its
+ *  own copy of a template Convert (see Convert.copy()) and so its own
+ *  AssetReader, AssetManager, and model processors.  Models are handed
+ *  to the workers through a bounded queue such that submit() will block
+ *  if the workers fall too far behind.
+ *
+ *  <p>Because each model is processed by a single worker exactly as
+ *  Convert.convert() would, the output is the same as converting the
+ *  models serially.  The exception is when two models write different
+ *  content to the same target file, in which case it is undefined which
+ *  one wins.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class BatchConvert implements ConvertQueue {
+
+    static Logger log = LoggerFactory.getLogger(BatchConvert.class);
+
+    private static final File END = new File("");
+
+    private final Convert template;
+    private final BlockingQueue<File> queue;
+    private final List<Worker> workers = new ArrayList<>();
+    private final List<File> failed = Collections.synchronizedList(new ArrayList<File>());
+    private boolean finished;
+
+    public BatchConvert( Convert template, int threadCount ) {
+        this(template, threadCount, threadCount * 2);
+    }
+
+    public BatchConvert( Convert template, int threadCount, int queueSize ) {
+        if( threadCount < 1 ) {
+            throw new IllegalArgumentException("Thread count must be at least 1:" + threadCount);
+        }
+        this.template = template;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+
+        log.info("Starting " + threadCount + " conversion workers");
+        for( int i = 0; i < threadCount; i++ ) {
+            // Create the Convert copies up front on this thread so that
+            // the template is never accessed from more than one thread.
+            Worker worker = new Worker(i, template.copy());
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    public Convert getTemplate() {
+        return template;
+    }
+
+    @Override
+    public void submit( File model ) throws InterruptedException {
+        if( finished ) {
+            throw new IllegalStateException("Batch is already finished.");
+        }
+        queue.put(model);
+    }
+
+    @Override
+    public void finish() throws InterruptedException {
+        if( !finished ) {
+            finished = true;
+            for( int i = 0; i < workers.size(); i++ ) {
+                queue.put(END);
+            }
+        }
+        for( Worker worker : workers ) {
+            worker.join();
+        }
+        if( !failed.isEmpty() ) {
+            throw new RuntimeException("Error converting " + failed.size() + " model(s):" + failed);
+        }
+    }
+
+    /**
+     *  Returns the models that have failed to convert so far.
+     */
+    public List<File> getFailed() {
+        synchronized( failed ) {
+            return new ArrayList<>(failed);
+        }
+    }
+
+    private class Worker extends Thread {
+        private final Convert convert;
+
+        public Worker( int index, Convert convert ) {
+            super("jmec-worker-" + index);
+            this.convert = convert;
+        }
+
+        @Override
+        public void run() {
+            while( true ) {
+                File f;
+                try {
+                    f = queue.take();
+                } catch( InterruptedException e ) {
+                    log.warn("Worker interrupted:" + getName());
+                    return;
+                }
+                if( f == END ) {
+                    return;
+                }
+                try {
+                    convert.convert(f);
+                } catch( Throwable t ) {
+                    // Errors like OutOfMemoryError only fail this model instead
+                    // of silently killing the worker
+                    log.error("Error converting:" + f, t);
+                    failed.add(f);
+                }
+            }
+        }
+    }
+}
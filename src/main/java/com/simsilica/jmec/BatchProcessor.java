@@ -0,0 +1,333 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.jme3.bounding.BoundingVolume;
+import com.jme3.material.Material;
+import com.jme3.math.*;
+import com.jme3.scene.*;
+
+import jme3tools.optimize.GeometryBatchFactory;
+
+/**
+ *  A model processor that merges static geometries with the same material
+ *  parameters into batched meshes to reduce draw calls.  Geometries are
+ *  only merged with others in the same cell of a grid (see setCellSize())
+ *  so that the batches can still be culled.
+ *
+ *  <p>A geometry is left alone if it or any of its parents has controls,
+ *  has a BatchHint of Never, or has the user data flag "jmec.noBatch" set.
+ *  Geometries with their own user data, animated or morphed meshes, meshes
+ *  with LOD levels, and geometries inside linked submodels are left alone
+ *  too.  The merged geometries are removed from the scene graph but the
+ *  nodes that contained them are kept.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class BatchProcessor implements ModelProcessor {
+
+    static Logger log = LoggerFactory.getLogger(BatchProcessor.class);
+
+    /**
+     *  User data that can be set to true on a geometry or node to keep
+     *  it (and its children) out of batches.
+     */
+    public static final String NO_BATCH = "jmec.noBatch";
+
+    private float cellSize;
+
+    public BatchProcessor() {
+        this(0);
+    }
+
+    public BatchProcessor( float cellSize ) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     *  Sets the size of the grid cells that limit which geometries can be
+     *  batched together, in model units.  Geometries are assigned to cells by
+     *  the center of their bounds.  0 batches the whole model together.
+     */
+    public void setCellSize( float cellSize ) {
+        this.cellSize = cellSize;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    @Override
+    public void apply( ModelInfo info ) {
+        if( !(info.getModelRoot() instanceof Node) ) {
+            return;
+        }
+        Node root = (Node)info.getModelRoot();
+
+        // Merge relative to the root so that the batches can be attached
+        // directly to it
+        Transform saved = root.getLocalTransform().clone();
+        root.setLocalTransform(Transform.IDENTITY);
+        root.updateGeometricState();
+        try {
+            int before = countDrawCalls(root);
+            List<List<Geometry>> batches = findBatches(root);
+            int merged = 0;
+            for( List<Geometry> batch : batches ) {
+                merge(root, batch, merged);
+                merged++;
+            }
+            int after = countDrawCalls(root);
+            log.info(String.format("Batched %s: %d draw calls before, %d after (%d batches)",
+                                   info.getModelName(), before, after, merged));
+        } finally {
+            root.setLocalTransform(saved);
+            root.updateGeometricState();
+        }
+    }
+
+    /**
+     *  Returns the groups of two or more geometries that can be merged.
+     */
+    protected List<List<Geometry>> findBatches( Node root ) {
+        final List<Geometry> candidates = new ArrayList<>();
+        root.depthFirstTraversal(new SceneGraphVisitorAdapter() {
+                @Override
+                public void visit( Geometry geom ) {
+                    if( isBatchable(geom) ) {
+                        candidates.add(geom);
+                    }
+                }
+            });
+
+        // Geometries can only be batched with others that have the same
+        // mesh layout, render settings, and cell.  Within those, materials
+        // are compared with contentEquals().
+        Map<String, List<List<Geometry>>> groups = new LinkedHashMap<>();
+        for( Geometry geom : candidates ) {
+            String signature = getSignature(geom);
+            List<List<Geometry>> list = groups.get(signature);
+            if( list == null ) {
+                list = new ArrayList<>();
+                groups.put(signature, list);
+            }
+            List<Geometry> match = null;
+            for( List<Geometry> group : list ) {
+                if( group.get(0).getMaterial().contentEquals(geom.getMaterial()) ) {
+                    match = group;
+                    break;
+                }
+            }
+            if( match == null ) {
+                match = new ArrayList<>();
+                list.add(match);
+            }
+            match.add(geom);
+        }
+
+        List<List<Geometry>> result = new ArrayList<>();
+        for( List<List<Geometry>> list : groups.values() ) {
+            for( List<Geometry> group : list ) {
+                if( group.size() > 1 ) {
+                    result.add(group);
+                }
+            }
+        }
+        return result;
+    }
+
+    protected boolean isBatchable( Geometry geom ) {
+        Mesh mesh = geom.getMesh();
+        if( mesh == null || geom.getMaterial() == null || geom.getBatchHint() == Spatial.BatchHint.Never ) {
+            return false;
+        }
+        if( !geom.getUserDataKeys().isEmpty() ) {
+            // Either opted out or has data that would be lost
+            return false;
+        }
+        for( Spatial s = geom; s != null; s = s.getParent() ) {
+            if( s.getNumControls() > 0 || s instanceof AssetLinkNode || isTrue(s.getUserData(NO_BATCH)) ) {
+                return false;
+            }
+        }
+        switch( mesh.getMode() ) {
+            case Points:
+            case Lines:
+            case LineLoop:
+            case LineStrip:
+            case Triangles:
+            case TriangleFan:
+            case TriangleStrip:
+                break;
+            default:
+                return false;
+        }
+        if( mesh.getNumLodLevels() > 0 || mesh.hasMorphTargets()
+            || mesh.getBuffer(VertexBuffer.Type.BoneIndex) != null
+            || mesh.getBuffer(VertexBuffer.Type.HWBoneIndex) != null
+            || mesh.getBuffer(VertexBuffer.Type.InstanceData) != null ) {
+            return false;
+        }
+        // The positions, normals, and tangents are transformed as floats
+        for( VertexBuffer vb : mesh.getBufferList() ) {
+            switch( vb.getBufferType() ) {
+                case Position:
+                case Normal:
+                case Tangent:
+                    if( vb.getFormat() != VertexBuffer.Format.Float ) {
+                        return false;
+                    }
+                    break;
+            }
+        }
+        // Mirrored geometry would have its winding reversed once its
+        // transform is baked in
+        Vector3f scale = geom.getWorldScale();
+        if( scale.x * scale.y * scale.z <= 0 ) {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isTrue( Object value ) {
+        if( value instanceof Boolean ) {
+            return (Boolean)value;
+        } else if( value instanceof Number ) {
+            return ((Number)value).doubleValue() != 0;
+        } else if( value instanceof String ) {
+            return Boolean.parseBoolean((String)value);
+        }
+        return false;
+    }
+
+    /**
+     *  Returns a string describing everything but the material that has
+     *  to match for two geometries to be merged.
+     */
+    protected String getSignature( Geometry geom ) {
+        Mesh mesh = geom.getMesh();
+        StringBuilder sb = new StringBuilder();
+        sb.append(geom.getMaterial().getMaterialDef().getAssetName());
+        sb.append("|").append(getListMode(mesh.getMode()));
+        sb.append("|").append(geom.getQueueBucket());
+        sb.append("|").append(geom.getShadowMode());
+        sb.append("|").append(geom.getCullHint());
+        // Merged buffers are created for every type any of the meshes
+        // has so they all need the same buffers
+        for( VertexBuffer vb : mesh.getBufferList() ) {
+            if( vb.getBufferType() == VertexBuffer.Type.Index ) {
+                continue;
+            }
+            sb.append("|").append(vb.getBufferType()).append(":").append(vb.getFormat());
+            sb.append(":").append(vb.getNumComponents()).append(vb.isNormalized() ? "n" : "");
+        }
+        if( cellSize > 0 ) {
+            BoundingVolume bound = geom.getWorldBound();
+            Vector3f center = bound != null ? bound.getCenter() : geom.getWorldTranslation();
+            sb.append("|").append((int)Math.floor(center.x / cellSize));
+            sb.append(",").append((int)Math.floor(center.y / cellSize));
+            sb.append(",").append((int)Math.floor(center.z / cellSize));
+        }
+        return sb.toString();
+    }
+
+    private static Mesh.Mode getListMode( Mesh.Mode mode ) {
+        switch( mode ) {
+            case LineLoop:
+            case LineStrip:
+                return Mesh.Mode.Lines;
+            case TriangleFan:
+            case TriangleStrip:
+                return Mesh.Mode.Triangles;
+            default:
+                return mode;
+        }
+    }
+
+    protected void merge( Node root, List<Geometry> batch, int index ) {
+        Geometry first = batch.get(0);
+        Material material = first.getMaterial();
+
+        Mesh mesh = new Mesh();
+        GeometryBatchFactory.mergeGeometries(batch, mesh);
+        mesh.updateCounts();
+        mesh.updateBound();
+
+        String name = "batch-" + index + (material.getName() != null ? "-" + material.getName() : "");
+        Geometry result = new Geometry(name, mesh);
+        result.setMaterial(material);
+        result.setQueueBucket(first.getQueueBucket());
+        result.setShadowMode(first.getShadowMode());
+        result.setCullHint(first.getCullHint());
+        if( log.isDebugEnabled() ) {
+            log.debug("Merged " + batch.size() + " geometries into:" + name
+                      + " vertexes:" + mesh.getVertexCount() + " triangles:" + mesh.getTriangleCount());
+        }
+
+        for( Geometry geom : batch ) {
+            geom.removeFromParent();
+        }
+        root.attachChild(result);
+    }
+
+    /**
+     *  Returns the number of geometries in the model that are not always
+     *  culled, ie: roughly the number of draw calls it takes to render.
+     */
+    public static int countDrawCalls( Spatial model ) {
+        final int[] count = new int[1];
+        model.depthFirstTraversal(new SceneGraphVisitorAdapter() {
+                @Override
+                public void visit( Geometry geom ) {
+                    if( geom.getCullHint() != Spatial.CullHint.Always ) {
+                        count[0]++;
+                    }
+                }
+            });
+        return count[0];
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[cellSize=" + cellSize + "]";
+    }
+}
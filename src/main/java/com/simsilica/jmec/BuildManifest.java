@@ -0,0 +1,294 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.*;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.gson.*;
+
+/**
+ *  Keeps track of the inputs of previously converted models so that
+ *  models can be skipped when nothing has changed.  For each model, the
+ *  manifest records a hash of the conversion options (including the model
+ *  script text), the output files, and the size, time stamp, and content hash
+ *  of every source file involved: the model itself, any files its loader
+ *  pulled in, and all of its ModelInfo.Dependency source files.  Source files
+ *  that did not exist are recorded as missing.
+ *
+ *  <p>A model is up to date when its options hash matches, all of its outputs
+ *  (the j3o and any generated or copied dependencies) still exist, all of
+ *  its source files still hash the same, and none of its missing source files
+ *  have appeared.  Files whose size and time stamp have not changed are not
+ *  rehashed.</p>
+ *
+ *  <p>The methods of this class are thread safe so that a single manifest can
+ *  be shared by all of the workers of a BatchConvert.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class BuildManifest {
+
+    static Logger log = LoggerFactory.getLogger(BuildManifest.class);
+
+    public static final String DEFAULT_NAME = ".jmec-manifest.json";
+
+    private static final int VERSION = 2;
+
+    private final File file;
+    private final ConcurrentMap<String, ModelEntry> models = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FileEntry> current = new ConcurrentHashMap<>();
+    private volatile boolean changed;
+
+    public BuildManifest( File file ) {
+        this.file = file;
+        if( file.exists() ) {
+            try {
+                load();
+            } catch( IOException | RuntimeException e ) {
+                log.warn("Ignoring unreadable build manifest:" + file, e);
+                models.clear();
+            }
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     *  Returns true if the specified model was previously converted with the
+     *  same options and none of its inputs have changed since.
+     */
+    public boolean isUpToDate( File model, String options ) {
+        ModelEntry entry = models.get(toKey(model));
+        if( entry == null ) {
+            return false;
+        }
+        if( !Objects.equals(options, entry.options) ) {
+            log.debug("Options changed for:" + model);
+            return false;
+        }
+        for( String output : entry.outputs ) {
+            if( !new File(output).exists() ) {
+                log.debug("Output missing:" + output + " for:" + model);
+                return false;
+            }
+        }
+        for( FileEntry fe : entry.files ) {
+            if( fe.missing ) {
+                if( new File(fe.path).exists() ) {
+                    log.debug("Missing source appeared:" + fe.path + " for:" + model);
+                    return false;
+                }
+                continue;
+            }
+            FileEntry now = getFileEntry(new File(fe.path), fe);
+            if( now == null || !Objects.equals(now.hash, fe.hash) ) {
+                log.debug("Source changed:" + fe.path + " for:" + model);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     *  Records the inputs and output of a successfully converted model.
+     */
+    public void update( File model, String options, File output, Collection<File> sources ) {
+        update(model, options, output == null ? Collections.<File>emptyList() : Collections.singleton(output),
+               sources);
+    }
+
+    /**
+     *  Records the inputs and all of the output files of a successfully
+     *  converted model.
+     */
+    public void update( File model, String options, Collection<File> outputs, Collection<File> sources ) {
+        ModelEntry entry = new ModelEntry();
+        entry.options = options;
+        for( File f : outputs ) {
+            entry.outputs.add(f.getAbsolutePath());
+        }
+        Set<String> seen = new HashSet<>();
+        for( File f : sources ) {
+            if( !seen.add(f.getAbsolutePath()) ) {
+                continue;
+            }
+            FileEntry fe = getFileEntry(f, null);
+            if( fe == null ) {
+                // Track that it was missing so that the model is converted
+                // again once it exists
+                fe = new FileEntry(f.getAbsolutePath(), -1, 0, null);
+                fe.missing = true;
+            }
+            entry.files.add(fe);
+        }
+        models.put(toKey(model), entry);
+        changed = true;
+    }
+
+    /**
+     *  Removes any record of the specified model so that it will be converted
+     *  again next time.
+     */
+    public void remove( File model ) {
+        if( models.remove(toKey(model)) != null ) {
+            changed = true;
+        }
+    }
+
+    /**
+     *  Writes the manifest if it has changed since it was loaded or last saved.
+     */
+    public synchronized void save() throws IOException {
+        if( !changed ) {
+            return;
+        }
+        changed = false;
+
+        Root root = new Root();
+        root.version = VERSION;
+        root.models = new TreeMap<>(models);
+        String json = new GsonBuilder().setPrettyPrinting().create().toJson(root);
+
+        log.info("Writing build manifest:" + file);
+        File parent = file.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            Files.write(json, temp, Charsets.UTF_8);
+            try {
+                java.nio.file.Files.move(temp.toPath(), file.toPath(),
+                                         StandardCopyOption.REPLACE_EXISTING,
+                                         StandardCopyOption.ATOMIC_MOVE);
+            } catch( AtomicMoveNotSupportedException e ) {
+                java.nio.file.Files.move(temp.toPath(), file.toPath(),
+                                         StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            if( temp.exists() ) {
+                temp.delete();
+            }
+        }
+    }
+
+    protected void load() throws IOException {
+        log.info("Reading build manifest:" + file);
+        String json = Files.toString(file, Charsets.UTF_8);
+        Root root = new Gson().fromJson(json, Root.class);
+        if( root == null || root.version != VERSION || root.models == null ) {
+            log.warn("Ignoring build manifest with unknown version:" + file);
+            return;
+        }
+        models.putAll(root.models);
+    }
+
+    protected String toKey( File model ) {
+        try {
+            return model.getCanonicalPath();
+        } catch( IOException e ) {
+            return model.getAbsolutePath();
+        }
+    }
+
+    /**
+     *  Returns the current size/time/hash information for the specified file or
+     *  null if the file does not exist.  If a previous entry is provided and the
+     *  size and time stamp still match then the previous hash is trusted instead of
+     *  reading the file again.  Hashes are computed at most once per file per run.
+     */
+    protected FileEntry getFileEntry( File f, FileEntry previous ) {
+        if( !f.isFile() ) {
+            return null;
+        }
+        String path = f.getAbsolutePath();
+        long size = f.length();
+        long time = f.lastModified();
+        FileEntry result = current.get(path);
+        if( result != null && result.size == size && result.lastModified == time ) {
+            return result;
+        }
+        if( previous != null && previous.size == size && previous.lastModified == time ) {
+            result = previous;
+        } else {
+            try {
+                result = new FileEntry(path, size, time, Files.hash(f, Hashing.sha1()).toString());
+            } catch( IOException e ) {
+                log.warn("Error hashing:" + f, e);
+                return null;
+            }
+        }
+        current.put(path, result);
+        return result;
+    }
+
+    private static class Root {
+        int version;
+        Map<String, ModelEntry> models;
+    }
+
+    private static class ModelEntry {
+        String options;
+        List<String> outputs = new ArrayList<>();
+        List<FileEntry> files = new ArrayList<>();
+    }
+
+    private static class FileEntry {
+        String path;
+        long size;
+        long lastModified;
+        String hash;
+        boolean missing;
+
+        public FileEntry( String path, long size, long lastModified, String hash ) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
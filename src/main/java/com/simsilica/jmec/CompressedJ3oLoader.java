@@ -0,0 +1,105 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+import com.jme3.asset.*;
+import com.jme3.export.binary.BinaryLoader;
+
+/**
+ *  A drop-in replacement for JME's j3o BinaryLoader that can also load
+ *  the GZIP compressed j3o files written when j3o compression is
+ *  enabled (see AssetWriter.setCompressionLevel()).  Uncompressed j3o
+ *  files load as normal.  Register it with the application's AssetManager
+ *  before loading converted models:
+ *
+ *  <pre>
+ *  assetManager.registerLoader(CompressedJ3oLoader.class, "j3o");
+ *  </pre>
+ *
+ *  @author    Paul Speed
+ */
+public class CompressedJ3oLoader extends BinaryLoader {
+
+    @Override
+    public Object load( AssetInfo assetInfo ) throws IOException {
+        return super.load(new DecompressingInfo(assetInfo));
+    }
+
+    /**
+     *  Wraps the specified stream so that it is decompressed if it starts
+     *  with the GZIP magic number.
+     */
+    public static InputStream decompress( InputStream in ) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, 64 * 1024);
+        buffered.mark(2);
+        int b1 = buffered.read();
+        int b2 = buffered.read();
+        buffered.reset();
+        if( b1 == 0x1f && b2 == 0x8b ) {
+            return new GZIPInputStream(buffered, 64 * 1024);
+        }
+        return buffered;
+    }
+
+    private static class DecompressingInfo extends AssetInfo {
+        private final AssetInfo delegate;
+
+        public DecompressingInfo( AssetInfo delegate ) {
+            super(delegate.getManager(), delegate.getKey());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InputStream openStream() {
+            InputStream in = delegate.openStream();
+            try {
+                return decompress(in);
+            } catch( IOException e ) {
+                try {
+                    in.close();
+                } catch( IOException e2 ) {
+                    e.addSuppressed(e2);
+                }
+                throw new AssetLoadException("Error opening:" + getKey(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.slf4j.*;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import com.jme3.asset.AssetKey;
+import com.jme3.asset.TextureKey;
+import com.jme3.audio.AudioKey;
+
+/**
+ *  Assigns dependency files a target path based on a hash of their content
+ *  so that identical files are only written once no matter how many
+ *  names or folders they are found under.  The AssetWriter rehomes the
+ *  key of every dependency to its content path, so duplicate textures
+ *  also end up with the same asset key and are only loaded once at
+ *  runtime.
+ *
+ *  <p>Content paths look like: prefix/ab/abcdef0123...png, where the first
+ *  two characters of the SHA-1 hash make a subdirectory and the dependency's
+ *  own extension is kept so that the right loader is still used.  Only
+ *  leaf assets like textures and sounds are moved (see accepts()) because
+ *  assets that refer to other files by relative path, like j3m materials,
+ *  would not find them after being moved.  The AssetWriter also leaves
+ *  alone the textures of j3m materials that are copied as files.</p>
+ *
+ *  <p>A single store can be shared by any number of AssetWriters on any
+ *  number of threads.  File hashes are cached by path, size, and last
+ *  modified time.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class ContentStore {
+
+    static Logger log = LoggerFactory.getLogger(ContentStore.class);
+
+    public static final String DEFAULT_PREFIX = "blobs";
+
+    private final String prefix;
+    private final ConcurrentMap<File, Content> files = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Boolean> hashes = new ConcurrentHashMap<>();
+    private final AtomicInteger duplicateCount = new AtomicInteger();
+    private final AtomicLong duplicateBytes = new AtomicLong();
+
+    public ContentStore() {
+        this(DEFAULT_PREFIX);
+    }
+
+    /**
+     *  Creates a store that places content under the specified path
+     *  relative to the target root.
+     */
+    public ContentStore( String prefix ) {
+        this.prefix = prefix;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     *  Returns true if assets with the specified key can be stored by
+     *  content, ie: they are leaf assets that do not refer to other files.
+     *  Defaults to textures and audio.
+     */
+    public boolean accepts( AssetKey key ) {
+        return key instanceof TextureKey || key instanceof AudioKey;
+    }
+
+    /**
+     *  Returns the target path for the content of the specified source file
+     *  with the extension of the specified key.
+     */
+    public String getPath( File source, AssetKey key ) throws IOException {
+        String hash = getHash(source);
+        StringBuilder sb = new StringBuilder();
+        if( prefix != null && !prefix.isEmpty() ) {
+            sb.append(prefix).append("/");
+        }
+        sb.append(hash.substring(0, 2)).append("/").append(hash);
+        if( !key.getExtension().isEmpty() ) {
+            sb.append(".").append(key.getExtension());
+        }
+        return sb.toString();
+    }
+
+    /**
+     *  Returns the SHA-1 hash of the specified file's content, reusing the
+     *  last hash if the file has not changed.
+     */
+    public String getHash( File source ) throws IOException {
+        File key = source.getAbsoluteFile().toPath().normalize().toFile();
+        long size = key.length();
+        long lastModified = key.lastModified();
+        Content existing = files.get(key);
+        if( existing != null && existing.size == size && existing.lastModified == lastModified ) {
+            return existing.hash;
+        }
+        String hash = Files.hash(key, Hashing.sha1()).toString();
+        Content content = new Content(hash, size, lastModified);
+        if( existing == null ? files.putIfAbsent(key, content) == null : files.replace(key, existing, content) ) {
+            // First time we've seen this version of this file so see
+            // if its content is a duplicate of some other file
+            if( hashes.putIfAbsent(hash, Boolean.TRUE) != null ) {
+                log.info("Duplicate content:" + source);
+                duplicateCount.incrementAndGet();
+                duplicateBytes.addAndGet(size);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     *  Returns the number of distinct pieces of content that have been
+     *  stored.
+     */
+    public int getContentCount() {
+        return hashes.size();
+    }
+
+    /**
+     *  Returns the number of source files whose content was a duplicate
+     *  of another source file.
+     */
+    public int getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    /**
+     *  Returns the total size of the duplicate source files, ie: the bytes
+     *  that did not have to be written.
+     */
+    public long getDuplicateBytes() {
+        return duplicateBytes.get();
+    }
+
+    private static class Content {
+        final String hash;
+        final long size;
+        final long lastModified;
+
+        public Content( String hash, long size, long lastModified ) {
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -38,11 +38,18 @@ package com.simsilica.jmec;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.ZipEntry;
 
 import org.slf4j.*;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.hash.*;
+
 import com.jme3.asset.*;
 import com.jme3.scene.*;
 
@@ -66,17 +73,39 @@ public class Convert {
 
     public static final String ALL_PROBE_OPTIONS = "btrscpdu";
 
+    public static final int DEFAULT_IO_THREADS = 4;
+
     public static final String[] HELP = {
         "Usage: jmec [options] [models]",
         "",
-        "Where [models] are a list of JME-compatible model files.",
+        "Where [models] are a list of JME-compatible model files, directories,",
+        "or glob patterns relative to the sourceRoot, ie: \"**/*.gltf\".",
+        "Directories are searched recursively for files with model extensions.",
         "",
         "Where [options] are:",
         " -sourceRoot <dir> : specifies the asset root for the models.",
         "       Model dependency paths will be evaluated relative to this root.",
         "",
+        " -libraryRoot <dir> : adds a directory that is searched after the",
+        "       sourceRoot for the textures, etc. that models reference.  Can be",
+        "       specified more than once.",
+        "",
+        " -ignoreCase : matches referenced asset paths to source files",
+        "       regardless of case.",
+        "",
+        " -indexSources : finds the files that models reference through an",
+        "       in-memory index of the sourceRoot built once instead of checking",
+        "       the file system for each one.  Files added during the run are",
+        "       not found.  Always on with -libraryRoot or -ignoreCase.",
+        "",
         " -targetRoot <dir> : specifies the asset target root for writing",
-        "       converted assets and their dependencies.",
+        "       converted assets and their dependencies.  If it ends with .zip",
+        "       or .jar then everything is written into that archive instead.",
+        "",
+        " -archiveStore <list> : a comma separated list of the file extensions",
+        "       that are stored without compression in a zip/jar targetRoot.",
+        "       Everything else is deflated.",
+        "       Defaults to: " + Joiner.on(",").join(AssetArchive.DEFAULT_STORED),
         "",
         " -targetPath <path> : a path string specifying where to place",
         "       the copied/converted assets within the targetRoot.  Any",
@@ -88,6 +117,113 @@ public class Convert {
         "       Groovy and Javascript are supported 'out of the box' but any ",
         "       JSR 223 compatible scripting engine should work if on the classpath.",
         "",
+        " -incremental : skips models whose source files, dependencies,",
+        "       scripts, and options have not changed since they were last",
+        "       converted.  Conversion history is kept in a " + BuildManifest.DEFAULT_NAME,
+        "       file in the targetRoot.  Not supported for zip/jar targets.",
+        "",
+        " -batch <cellSize> : merges static geometries that have the same",
+        "       material parameters into batched meshes to reduce draw calls.",
+        "       Only geometries in the same cellSize grid cell are merged, 0 merges",
+        "       across the whole model.  Runs in order with any -script options.",
+        "       Set the \"" + BatchProcessor.NO_BATCH + "\" user data to true to keep",
+        "       something out of batches.",
+        "",
+        " -vertexCache : reorders mesh triangles and vertexes for the GPU's",
+        "       vertex cache and shrinks int index buffers to shorts where they fit.",
+        "       Logs the average cache miss ratio (ACMR) before and after.",
+        "",
+        " -quantize : stores normals, tangents, and texture coordinates as",
+        "       normalized bytes/shorts or half floats where the error is small",
+        "       enough.  Should come after the other mesh processing options.",
+        "",
+        " -quantizeTolerance <type>=<error> : sets the largest error allowed",
+        "       for a vertex attribute type (Normal, Tangent, TexCoord, Color, etc.)",
+        "       by the last -quantize.  0 keeps that type as floats.",
+        "",
+        " -lod <reductions> : generates LOD levels for meshes with at least 100",
+        "       triangles, ie: -lod 0.25,0.5,0.75 removes 25%, 50%, and 75% of",
+        "       the triangles for levels 1 to 3.  Meshes are simplified in parallel.",
+        "",
+        " -extensions <list> : a comma separated list of the file extensions",
+        "       that are converted when searching directories.",
+        "       Defaults to: " + Joiner.on(",").join(ModelScanner.DEFAULT_EXTENSIONS),
+        "",
+        " -copyMode <copy|hardlink|reflink> : how dependency files are written",
+        "       to the target.  'hardlink' links the target to the source file and",
+        "       'reflink' makes a copy-on-write clone where the file system",
+        "       supports it.  Both fall back to copying.  Defaults to copy.",
+        "",
+        " -copyCheck <none|timestamp|hash> : how existing target files are",
+        "       checked to see if they need to be copied again.  'timestamp'",
+        "       compares size and last modified time, 'hash' compares contents.",
+        "       Defaults to timestamp.",
+        "",
+        " -copyEveryModel : copies each model's dependencies even when an",
+        "       earlier model in the same run already copied them.  By default,",
+        "       dependencies shared between models are only copied once per run.",
+        "",
+        " -ioThreads <count> : the number of threads used to copy dependency",
+        "       files.  0 copies them on the converting thread.  Defaults to " + DEFAULT_IO_THREADS + ".",
+        "",
+        " -compress <level> : writes GZIP compressed j3o files using the",
+        "       specified compression level from 1 (fastest) to 9 (smallest).",
+        "       Compressed j3o files must be loaded with CompressedJ3oLoader.",
+        "",
+        " -dedup : copies dependencies to paths based on a hash of their",
+        "       content, ie: " + ContentStore.DEFAULT_PREFIX + "/ab/abcdef....png, so that identical files",
+        "       found under different names are only written once and are",
+        "       loaded once at runtime.",
+        "",
+        " -textureMaxSize <size> : scales textures down by halves until their",
+        "       width and height fit within the specified size.",
+        "",
+        " -textureFormat <source|dds|dxt> : writes textures as uncompressed",
+        "       'dds' or 'dxt' compressed DDS files with their full mip chain.",
+        "       'source' keeps the source image format.  Defaults to source.",
+        "",
+        " -textureStore <dir> : keeps textures encoded by the options above",
+        "       in the specified directory by a hash of their source content and",
+        "       the options so that they are only encoded once across runs.",
+        "",
+        " -textureCache <mb> : keeps up to the specified megabytes of decoded",
+        "       textures in memory across models so that textures shared by",
+        "       many models are only loaded once.",
+        "",
+        " -placeholderTextures : skips decoding the model's texture images",
+        "       when they only need to be copied.  Scripts can still load the",
+        "       real textures with assets.loadRealTexture(texture).",
+        "",
+        " -keepBuffers : leaves each model's mesh and image direct memory for",
+        "       the garbage collector instead of freeing it as soon as the model",
+        "       is written.",
+        "",
+        " -mmap : memory maps GLB files and GLTF .bin buffers while loading",
+        "       instead of reading them onto the heap.  Useful for very large",
+        "       models.",
+        "",
+        " -report <file> : writes per-model and aggregate timing information",
+        "       for the run to the specified JSON file.  A summary is always",
+        "       logged at the end of the run.",
+        "",
+        " -threads <count> : converts the models using the specified number of",
+        "       worker threads.  Each worker has its own asset manager and its own",
+        "       copy of the model scripts.  Defaults to 1.",
+        "",
+        " -pipeline : loads, processes, and writes models in separate stages",
+        "       so that loading the next model overlaps with running scripts",
+        "       on the current one and writing the previous one.  Only used",
+        "       when -threads is 1 since separate workers already overlap.",
+        "",
+        " -server <stdin|port> : runs as a conversion server that keeps the",
+        "       asset manager and compiled scripts warm between jobs.  Jobs are",
+        "       read as JSON lines from stdin or from clients connected to the",
+        "       specified port on localhost.  See ConvertServer for the format.",
+        "",
+        " -scan : lists the buffers, images, and materials that each model",
+        "       references without loading or converting it.  Only GLTF, GLB,",
+        "       and OBJ models can be scanned.",
+        "",
         " -probe [probe options string] : configures the information that the probe",
         "       will output.",
         "       [probe options]:",
@@ -120,13 +256,29 @@ public class Convert {
     static Logger log = LoggerFactory.getLogger(Convert.class);
 
     private File sourceRoot;
+    private List<File> libraryRoots = new ArrayList<>();
+    private boolean ignoreCase;
+    private boolean indexedSources;
+    private SourceIndex sourceIndex;
     private File targetRoot;
+    private AssetArchive archive;
     private String targetAssetPath;
     private AssetReader assets;
     private AssetWriter writer;
     private Probe probe = null;
     private String probeOptions = null;
     private List<ModelScript> modelScripts = new ArrayList<>();
+    private boolean incremental;
+    private BuildManifest manifest;
+    private ConvertReport report;
+    private CopyRegistry copyRegistry;
+    private Executor copyExecutor;
+    private boolean releaseBuffers;
+    private int compressionLevel;
+    private DependencyScanner scanner;
+    private ContentStore contentStore;
+    private TextureEncoder textureEncoder;
+    private ConcurrentMap<File, String> modelNames = new ConcurrentHashMap<>();
 
     private List<ModelProcessor> processors = new ArrayList<>();
 
@@ -150,6 +302,11 @@ public class Convert {
     protected AssetWriter getAssetWriter() {
         if( writer == null ) {
             writer = new AssetWriter();
+            writer.setCopyRegistry(copyRegistry);
+            writer.setCopyExecutor(copyExecutor);
+            writer.setCompressionLevel(compressionLevel);
+            writer.setContentStore(contentStore);
+            writer.setTextureEncoder(textureEncoder);
             processors.add(writer);
         }
         return writer;
@@ -173,16 +330,137 @@ public class Convert {
             return;
         }
         this.sourceRoot = f;
-        getAssetReader().setAssetRoot(f);
+        updateSourceRoots();
     }
 
     public File getSourceRoot() {
         return sourceRoot;
     }
 
+    /**
+     *  Adds a directory that is searched after the source root for the
+     *  assets that models reference, ie: a shared library of textures.
+     *  Models themselves must still be in the source root.  Library roots
+     *  are searched in the order they were added.  Dependencies found in a
+     *  library root are copied to the target like any other.
+     */
+    public void addLibraryRoot( File f ) {
+        if( !f.isDirectory() ) {
+            log.error("Library root is not a directory:" + f);
+            return;
+        }
+        libraryRoots.add(f);
+        updateSourceRoots();
+    }
+
+    public List<File> getLibraryRoots() {
+        return Collections.unmodifiableList(libraryRoots);
+    }
+
+    /**
+     *  Sets the source root, the library roots, and whether case is ignored
+     *  all at once so that the SourceIndex, if one is needed, is only built
+     *  once.
+     */
+    public void setSourceRoots( File sourceRoot, List<File> libraryRoots, boolean ignoreCase ) {
+        if( !sourceRoot.isDirectory() ) {
+            log.error("Source root is not a directory:" + sourceRoot);
+            return;
+        }
+        this.libraryRoots.clear();
+        for( File f : libraryRoots ) {
+            if( !f.isDirectory() ) {
+                log.error("Library root is not a directory:" + f);
+                continue;
+            }
+            this.libraryRoots.add(f);
+        }
+        this.ignoreCase = ignoreCase;
+        this.sourceRoot = sourceRoot;
+        updateSourceRoots();
+    }
+
+    /**
+     *  Set to true to find assets through an in-memory index of the source
+     *  and library roots that is built once, instead of probing the file
+     *  system for every asset.  Files added to the roots after the index is
+     *  built will not be found.  The index is always used when there are
+     *  library roots or when ignoring case.  Defaults to false.
+     *  See SourceIndex.
+     */
+    public void setIndexedSources( boolean indexedSources ) {
+        this.indexedSources = indexedSources;
+        updateSourceRoots();
+    }
+
+    public boolean getIndexedSources() {
+        return indexedSources;
+    }
+
+    /**
+     *  Set to true to match asset names to source files regardless of case,
+     *  ie: for models authored on case insensitive file systems.
+     *  Defaults to false.
+     */
+    public void setIgnoreCase( boolean ignoreCase ) {
+        this.ignoreCase = ignoreCase;
+        updateSourceRoots();
+    }
+
+    public boolean getIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     *  Returns the index of source files when one is being used.
+     */
+    public SourceIndex getSourceIndex() {
+        return sourceIndex;
+    }
+
+    protected void updateSourceRoots() {
+        if( sourceRoot == null ) {
+            return;
+        }
+        scanner = null;
+        if( indexedSources || ignoreCase || !libraryRoots.isEmpty() ) {
+            List<File> roots = new ArrayList<>();
+            roots.add(sourceRoot);
+            roots.addAll(libraryRoots);
+            sourceIndex = new SourceIndex(roots, ignoreCase);
+            assets.setSourceIndex(sourceIndex);
+        } else {
+            sourceIndex = null;
+            assets.setAssetRoot(sourceRoot);
+        }
+    }
+
+    /**
+     *  Sets the directory that converted models and their dependencies are
+     *  written to.  If the file has a .zip or .jar extension then they are
+     *  written into an archive instead, see getArchive() and closeArchive().
+     */
     public void setTargetRoot( File f ) {
+        AssetArchive newArchive = null;
+        if( f != null && AssetArchive.isArchive(f) ) {
+            newArchive = Objects.equals(f, targetRoot) && archive != null ? archive : new AssetArchive(f);
+        }
+        setTargetRoot(f, newArchive);
+    }
+
+    private void setTargetRoot( File f, AssetArchive newArchive ) {
+        if( manifest != null && !Objects.equals(f, targetRoot) ) {
+            // The manifest belongs to the old target
+            saveBuildManifest();
+            manifest = null;
+        }
+        if( archive != null && archive != newArchive ) {
+            closeArchive();
+        }
         this.targetRoot = f;
+        this.archive = newArchive;
         getAssetWriter().setTarget(f);
+        getAssetWriter().setArchive(newArchive);
     }
 
     public File getTargetRoot() {
@@ -198,6 +476,36 @@ public class Convert {
         return targetAssetPath;
     }
 
+    /**
+     *  Returns the zip or jar archive that models are written to or null if
+     *  the target root is a directory.
+     */
+    public AssetArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     *  Finishes writing the archive, if the target root is one, and moves
+     *  it into place.  Models converted after this start a new archive.
+     */
+    public void closeArchive() {
+        if( archive == null ) {
+            return;
+        }
+        try {
+            archive.close();
+        } catch( IOException e ) {
+            throw new RuntimeException("Error writing archive:" + archive.getFile(), e);
+        }
+    }
+
+    /**
+     *  Returns the FileCopier used to write dependency files to the target.
+     */
+    public FileCopier getFileCopier() {
+        return getAssetWriter().getFileCopier();
+    }
+
     public void setProbeOptions( String options ) {
         this.probeOptions = options;
         for( char c : options.toCharArray() ) {
@@ -240,6 +548,239 @@ public class Convert {
         return probeOptions;
     }
 
+    /**
+     *  Turns off all probe options and removes the probe.
+     */
+    public void clearProbeOptions() {
+        if( probe != null ) {
+            processors.remove(probe);
+            probe = null;
+        }
+        probeOptions = null;
+    }
+
+    /**
+     *  Set to true to skip converting models that are already up to date
+     *  according to the BuildManifest in the target root.
+     */
+    public void setIncremental( boolean incremental ) {
+        this.incremental = incremental;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     *  Returns the build manifest for the current target root, loading it
+     *  if necessary.  Returns null if incremental conversion is not enabled
+     *  or there is no target root.  Archives are rewritten from scratch
+     *  every time so they never have a manifest.
+     */
+    public BuildManifest getBuildManifest() {
+        if( !incremental || targetRoot == null || archive != null ) {
+            return null;
+        }
+        if( manifest == null ) {
+            manifest = new BuildManifest(new File(targetRoot, BuildManifest.DEFAULT_NAME));
+        }
+        return manifest;
+    }
+
+    /**
+     *  Writes any changes to the build manifest.
+     */
+    public void saveBuildManifest() {
+        if( manifest == null ) {
+            return;
+        }
+        try {
+            manifest.save();
+        } catch( IOException e ) {
+            log.error("Error writing build manifest:" + manifest.getFile(), e);
+        }
+    }
+
+    /**
+     *  Sets the report that will collect the timing information of every
+     *  converted model.  Without a report, the timing information is still
+     *  available from ModelInfo.getReport().
+     */
+    public void setReport( ConvertReport report ) {
+        this.report = report;
+    }
+
+    public ConvertReport getReport() {
+        return report;
+    }
+
+    /**
+     *  Sets the registry used to skip copying dependencies that have
+     *  already been copied by another model during the same run.
+     *  Defaults to null, ie: every model copies all of its dependencies.
+     */
+    public void setCopyRegistry( CopyRegistry copyRegistry ) {
+        this.copyRegistry = copyRegistry;
+        if( writer != null ) {
+            writer.setCopyRegistry(copyRegistry);
+        }
+    }
+
+    public CopyRegistry getCopyRegistry() {
+        return copyRegistry;
+    }
+
+    /**
+     *  Sets the executor used to copy dependency files in parallel.
+     *  Defaults to null, ie: files are copied one at a time by the
+     *  thread writing the model.  See AssetWriter.createCopyExecutor().
+     */
+    public void setCopyExecutor( Executor copyExecutor ) {
+        this.copyExecutor = copyExecutor;
+        if( writer != null ) {
+            writer.setCopyExecutor(copyExecutor);
+        }
+    }
+
+    public Executor getCopyExecutor() {
+        return copyExecutor;
+    }
+
+    /**
+     *  Sets the GZIP compression level (1-9) for written j3o files or 0
+     *  for uncompressed.  See AssetWriter.setCompressionLevel().
+     */
+    public void setCompressionLevel( int compressionLevel ) {
+        this.compressionLevel = compressionLevel;
+        if( writer != null ) {
+            writer.setCompressionLevel(compressionLevel);
+        }
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     *  Sets the store that gives copied dependencies paths based on their
+     *  content so that duplicates are only written once.  See
+     *  AssetWriter.setContentStore().  Defaults to null.
+     */
+    public void setContentStore( ContentStore contentStore ) {
+        this.contentStore = contentStore;
+        if( writer != null ) {
+            writer.setContentStore(contentStore);
+        }
+    }
+
+    public ContentStore getContentStore() {
+        return contentStore;
+    }
+
+    /**
+     *  Sets the encoder that scales textures down and/or converts them to
+     *  DDS as they are written.  See AssetWriter.setTextureEncoder().
+     *  Defaults to null.
+     */
+    public void setTextureEncoder( TextureEncoder textureEncoder ) {
+        this.textureEncoder = textureEncoder;
+        if( writer != null ) {
+            writer.setTextureEncoder(textureEncoder);
+        }
+    }
+
+    public TextureEncoder getTextureEncoder() {
+        return textureEncoder;
+    }
+
+    /**
+     *  Sets a cache of decoded textures that is kept across models.  See
+     *  AssetReader.setTextureCache().  Defaults to null.
+     */
+    public void setTextureCache( TextureCache textureCache ) {
+        assets.setTextureCache(textureCache);
+    }
+
+    public TextureCache getTextureCache() {
+        return assets.getTextureCache();
+    }
+
+    /**
+     *  Set to true to load models with placeholder textures that have
+     *  no image data.  See AssetReader.setPlaceholderTextures().
+     */
+    public void setPlaceholderTextures( boolean placeholderTextures ) {
+        assets.setPlaceholderTextures(placeholderTextures);
+    }
+
+    public boolean getPlaceholderTextures() {
+        return assets.getPlaceholderTextures();
+    }
+
+    /**
+     *  Set to true to memory map GLTF binary data while loading.
+     *  See AssetReader.setMemoryMapped().
+     */
+    public void setMemoryMapped( boolean memoryMapped ) {
+        assets.setMemoryMapped(memoryMapped);
+    }
+
+    public boolean getMemoryMapped() {
+        return assets.getMemoryMapped();
+    }
+
+    /**
+     *  Set to true to explicitly free the direct memory of each model's
+     *  meshes and textures after it has been written, instead of waiting
+     *  for garbage collection.  The ModelInfo returned from convert() must
+     *  then not be used to access mesh or image data.  Defaults to false.
+     */
+    public void setReleaseBuffers( boolean releaseBuffers ) {
+        this.releaseBuffers = releaseBuffers;
+    }
+
+    public boolean getReleaseBuffers() {
+        return releaseBuffers;
+    }
+
+    /**
+     *  Returns a hash of the settings that affect the output of a conversion,
+     *  including the text of the model scripts.
+     */
+    public String getOptionsHash() {
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putString(BuildInfo.getVersion(), Charsets.UTF_8).putByte((byte)0);
+        hasher.putString(String.valueOf(sourceRoot), Charsets.UTF_8).putByte((byte)0);
+        if( !libraryRoots.isEmpty() || ignoreCase ) {
+            hasher.putString(String.valueOf(libraryRoots), Charsets.UTF_8).putByte((byte)0);
+            hasher.putBoolean(ignoreCase);
+        }
+        hasher.putString(String.valueOf(targetRoot), Charsets.UTF_8).putByte((byte)0);
+        hasher.putString(String.valueOf(targetAssetPath), Charsets.UTF_8).putByte((byte)0);
+        hasher.putString(String.valueOf(probeOptions), Charsets.UTF_8).putByte((byte)0);
+        if( compressionLevel != 0 ) {
+            hasher.putInt(compressionLevel);
+        }
+        if( contentStore != null ) {
+            hasher.putString("content:" + contentStore.getPrefix(), Charsets.UTF_8).putByte((byte)0);
+        }
+        if( textureEncoder != null ) {
+            hasher.putString(textureEncoder.toString(), Charsets.UTF_8).putByte((byte)0);
+        }
+        for( ModelProcessor proc : processors ) {
+            hasher.putString(proc.getClass().getName(), Charsets.UTF_8).putByte((byte)0);
+            if( proc instanceof ModelScript ) {
+                ModelScript script = (ModelScript)proc;
+                hasher.putString(script.getScriptName(), Charsets.UTF_8).putByte((byte)0);
+                hasher.putString(script.getScript(), Charsets.UTF_8).putByte((byte)0);
+            } else if( proc instanceof BatchProcessor || proc instanceof VertexCacheProcessor
+                       || proc instanceof QuantizeProcessor || proc instanceof LodProcessor ) {
+                hasher.putString(proc.toString(), Charsets.UTF_8).putByte((byte)0);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
     public void addModelScript( String script ) {
         addModelScript(new ModelScript(this, script));
     }
@@ -271,29 +812,255 @@ public class Convert {
         modelScripts.clear();
     }
 
+    /**
+     *  Creates a new Convert with its own AssetReader (and so its own
+     *  AssetManager) that is configured with the same source root, target
+     *  settings, probe options, and model scripts as this one.  The model
+     *  scripts are copied and so do not share bindings with the originals.
+     *  Custom model processors added with addModelProcessor() are shared
+     *  with the copy and must be thread safe if the copies will be run
+     *  from different threads.
+     */
+    public Convert copy() {
+        Convert result = new Convert();
+        result.libraryRoots.addAll(libraryRoots);
+        result.ignoreCase = ignoreCase;
+        result.indexedSources = indexedSources;
+        if( sourceRoot != null ) {
+            result.setSourceRoot(sourceRoot);
+        }
+        if( sourceIndex != null ) {
+            // Share the index so that it is only built once
+            result.sourceIndex = sourceIndex;
+            result.assets.setSourceIndex(sourceIndex);
+        }
+        if( probeOptions != null ) {
+            result.setProbeOptions(probeOptions);
+        }
+        for( ModelProcessor proc : processors ) {
+            if( proc == probe || proc == writer ) {
+                continue;
+            }
+            if( proc instanceof ModelScript && modelScripts.contains(proc) ) {
+                result.addModelScript(((ModelScript)proc).copy(result));
+            } else {
+                result.addModelProcessor(proc);
+            }
+        }
+        if( writer != null ) {
+            // Copies all write into the same archive
+            result.setTargetRoot(targetRoot, archive);
+            result.setTargetAssetPath(targetAssetPath);
+            result.getAssetWriter().setFileCopier(writer.getFileCopier());
+        }
+        // The manifest is thread safe and needs to be shared so that
+        // all of the results end up in the same file.
+        result.incremental = incremental;
+        result.manifest = getBuildManifest();
+        // So that copies name models found by this instance's findModels()
+        result.modelNames = modelNames;
+        result.report = report;
+        result.setCopyRegistry(copyRegistry);
+        result.setCopyExecutor(copyExecutor);
+        result.setCompressionLevel(compressionLevel);
+        result.setContentStore(contentStore);
+        result.setTextureEncoder(textureEncoder);
+        result.setTextureCache(getTextureCache());
+        result.setPlaceholderTextures(getPlaceholderTextures());
+        result.setMemoryMapped(getMemoryMapped());
+        result.releaseBuffers = releaseBuffers;
+        return result;
+    }
+
+    /**
+     *  Returns the model files for the specified model argument.  Directories
+     *  and glob patterns are searched relative to the source root for files
+     *  with the specified extensions, skipping anything in the target root.
+     *  Models found this way are named by their path relative to the source
+     *  root, see ModelScanner.getModelName().  Anything else is treated as a
+     *  single model file named by its file name.
+     */
+    public Iterator<File> findModels( final String model, String[] extensions ) {
+        final ModelScanner scanner = new ModelScanner(getAssetReader().getAssetRoot());
+        if( !scanner.isScannable(model) ) {
+            return Collections.singletonList(new File(model)).iterator();
+        }
+        scanner.setExtensions(extensions);
+        if( targetRoot != null ) {
+            scanner.addExcluded(targetRoot);
+        }
+        final Iterator<File> files = scanner.scan(model);
+        return new Iterator<File>() {
+            @Override
+            public boolean hasNext() {
+                return files.hasNext();
+            }
+
+            @Override
+            public File next() {
+                File f = files.next();
+                modelNames.put(f.getAbsoluteFile(), scanner.getModelName(model, f));
+                return f;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
     public ModelInfo convert( File f ) throws IOException {
+        ModelInfo info = load(f);
+        if( info == null ) {
+            return null;
+        }
+        runProcessors(info);
+        return info;
+    }
+
+    /**
+     *  Lists the files and materials referenced by the specified model by
+     *  reading only the model file itself.  This is much faster than loading
+     *  it but does not see anything that model scripts would add.  Returns
+     *  null if the model is not a type that can be scanned.
+     *  See DependencyScanner.
+     */
+    public DependencyScanner.Result scan( File f ) throws IOException {
+        if( scanner == null ) {
+            if( sourceIndex != null ) {
+                scanner = new DependencyScanner(sourceIndex);
+            } else {
+                scanner = new DependencyScanner(sourceRoot != null ? sourceRoot : new File("."));
+            }
+        }
+        if( !scanner.canScan(f) ) {
+            return null;
+        }
+        return scanner.scan(f);
+    }
+
+    /**
+     *  Loads the specified model and wraps it in a ModelInfo without running
+     *  any of the model processors.  Returns null if the file does not exist
+     *  or if incremental conversion is enabled and the model is up to date.
+     */
+    public ModelInfo load( File f ) throws IOException {
+        String name = modelNames.remove(f.getAbsoluteFile());
+        if( name == null ) {
+            name = f.getName();
+        }
         if( !f.exists() ) {
             log.error("File doesn't exist:" + f);
             return null;
         }
+        BuildManifest manifest = getBuildManifest();
+        if( manifest != null && manifest.isUpToDate(f, getOptionsHash()) ) {
+            log.info("Up to date:" + f);
+            if( report != null ) {
+                report.addSkipped(f);
+            }
+            return null;
+        }
+
         log.info("Convert:" + f);
+        long start = System.nanoTime();
         Spatial s = getAssetReader().loadModel(f);
+        long end = System.nanoTime();
 
-        ModelInfo info = new ModelInfo(sourceRoot, f.getName(), s);
-        runProcessors(info);
-
+        ModelInfo info;
+        if( sourceIndex != null ) {
+            info = new ModelInfo(sourceIndex, name, s);
+        } else {
+            info = new ModelInfo(sourceRoot, name, s);
+        }
+        info.setSourceFiles(f, getAssetReader().getLoadedFiles());
+        info.captureBuffers();
+        info.getReport().setLoadTime(end - start);
+        info.getReport().setSource(f, info.getLoadedFiles());
         return info;
     }
 
     public void runProcessors( ModelInfo info ) {
+        process(info);
+        write(info);
+    }
+
+    /**
+     *  Runs the model processors that come before the AssetWriter, ie:
+     *  the probe, model scripts, and custom processors.
+     */
+    public void process( ModelInfo info ) {
+        checkProcessors();
+        log.info("Processing:" + info.getModelName());
+        for( ModelProcessor proc : processors.subList(0, getWriterIndex()) ) {
+            apply(proc, info);
+        }
+    }
+
+    /**
+     *  Runs the AssetWriter, if there is one, and records the results in the
+     *  build manifest when incremental conversion is enabled.
+     */
+    public void write( ModelInfo info ) {
+        checkProcessors();
+        for( ModelProcessor proc : processors.subList(getWriterIndex(), processors.size()) ) {
+            apply(proc, info);
+        }
+
+        BuildManifest manifest = getBuildManifest();
+        if( manifest != null && info.getSourceFile() != null ) {
+            List<File> sources = new ArrayList<>(info.getLoadedFiles());
+            for( ModelInfo.Dependency dep : info.getDependencies() ) {
+                if( dep.getSourceFile() != null ) {
+                    sources.add(dep.getSourceFile());
+                }
+            }
+            List<File> outputs = new ArrayList<>(getAssetWriter().getDependencyTargets(info));
+            outputs.add(getAssetWriter().getTargetFile(info));
+            manifest.update(info.getSourceFile(), getOptionsHash(), outputs, sources);
+        }
+
+        if( releaseBuffers ) {
+            info.getReport().setBytesReleased(info.releaseBuffers());
+        }
+
+        info.getReport().setName(info.getModelName());
+        if( report != null ) {
+            report.addModel(info.getReport());
+        }
+    }
+
+    protected void apply( ModelProcessor proc, ModelInfo info ) {
+        long start = System.nanoTime();
+        proc.apply(info);
+        info.getReport().addProcessorTime(getProcessorName(proc), System.nanoTime() - start);
+    }
+
+    /**
+     *  Returns the name used for the specified processor in reports.
+     */
+    protected String getProcessorName( ModelProcessor proc ) {
+        if( proc instanceof ModelScript ) {
+            return "script:" + ((ModelScript)proc).getScriptName();
+        }
+        return proc.getClass().getSimpleName();
+    }
+
+    /**
+     *  Makes sure that there is at least one processor, adding a default
+     *  probe if there is no other output configured.
+     */
+    protected void checkProcessors() {
         if( processors.isEmpty() ) {
             log.warn("No output configured, probing instead.");
             getProbe(); // just let it use defaults
         }
-        log.info("Processing:" + info.getModelName());
-        for( ModelProcessor proc : processors ) {
-            proc.apply(info);
-        }
+    }
+
+    private int getWriterIndex() {
+        int index = writer == null ? -1 : processors.indexOf(writer);
+        return index < 0 ? processors.size() : index;
     }
 
     public static void printMemInfo() {
@@ -309,6 +1076,49 @@ public class Convert {
         }
     }
 
+    private static void setStoredExtensions( AssetArchive archive, String[] stored ) {
+        if( stored == null ) {
+            return;
+        }
+        for( String ext : AssetArchive.DEFAULT_STORED ) {
+            archive.setMethod(ext, ZipEntry.DEFLATED);
+        }
+        for( String ext : stored ) {
+            archive.setMethod(ext.trim(), ZipEntry.STORED);
+        }
+    }
+
+    private static boolean isStdinServer( String... args ) {
+        for( int i = 0; i < args.length - 1; i++ ) {
+            if( "-server".equals(args[i]) && "stdin".equals(args[i + 1]) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TextureEncoder getTextureEncoder( Convert convert ) {
+        if( convert.getTextureEncoder() == null ) {
+            convert.setTextureEncoder(new TextureEncoder());
+        }
+        return convert.getTextureEncoder();
+    }
+
+    private static void logScan( File f, DependencyScanner.Result result ) {
+        if( result == null ) {
+            log.warn("Cannot scan:" + f);
+            return;
+        }
+        log.info(String.format("Scanned %s in %.2f ms", f, result.getScanMillis()));
+        for( DependencyScanner.Reference ref : result.getReferences() ) {
+            if( ref.getFile() == null ) {
+                log.info("  " + ref.getType() + ": " + ref.getName());
+            } else {
+                log.info("  " + ref.getType() + ": " + ref.getFile() + (ref.exists() ? "" : " (missing)"));
+            }
+        }
+    }
+
     public static void main( String... args ) throws Exception {
 
         boolean test = true;
@@ -316,7 +1126,15 @@ public class Convert {
         // Forward JUL logging to slf4j
         JulLogSetup.initialize();
 
-        print(HEADER);
+        // In stdin server mode stdout only carries the JSON responses so
+        // everything else, including console logging, goes to stderr.
+        // (The log4j2.xml console appender follows System.out.)
+        PrintStream responses = System.out;
+        if( isStdinServer(args) ) {
+            System.setOut(System.err);
+        } else {
+            print(HEADER);
+        }
 
         printMemInfo();
 
@@ -328,22 +1146,189 @@ public class Convert {
         }
 
         Convert convert = new Convert();
+        ConvertReport report = new ConvertReport();
+        convert.setReport(report);
+        // Models converted in the same run only need to copy shared
+        // dependencies once
+        convert.setCopyRegistry(new CopyRegistry());
+        // The models are thrown away after writing so their direct
+        // memory can be freed right away
+        convert.setReleaseBuffers(true);
+        // Copy dependencies in parallel unless turned off with -ioThreads 0
+        ExecutorService copyExecutor = AssetWriter.createCopyExecutor(DEFAULT_IO_THREADS);
+        convert.setCopyExecutor(copyExecutor);
+        File reportFile = null;
+        int threads = 1;
+        boolean pipeline = false;
+        boolean scan = false;
+        String[] extensions = ModelScanner.DEFAULT_EXTENSIONS;
+        String[] archiveStore = null;
+        QuantizeProcessor quantize = null;
+        ExecutorService lodExecutor = null;
+        ConvertQueue queue = null;
         for( Iterator<String> it = Arrays.asList(args).iterator(); it.hasNext(); ) {
             String arg = it.next();
+            if( queue != null && arg.startsWith("-") ) {
+                // The options are changing so the models already queued
+                // need to finish with the old settings first.
+                queue.finish();
+                queue = null;
+            }
             if( "-sourceRoot".equals(arg) ) {
                 convert.setSourceRoot(new File(it.next()));
+            } else if( "-libraryRoot".equals(arg) ) {
+                convert.addLibraryRoot(new File(it.next()));
+            } else if( "-ignoreCase".equals(arg) ) {
+                convert.setIgnoreCase(true);
+            } else if( "-indexSources".equals(arg) ) {
+                convert.setIndexedSources(true);
             } else if( "-targetRoot".equals(arg) ) {
                 convert.setTargetRoot(new File(it.next()));
+                if( convert.getArchive() != null ) {
+                    setStoredExtensions(convert.getArchive(), archiveStore);
+                }
+            } else if( "-archiveStore".equals(arg) ) {
+                archiveStore = it.next().split(",");
+                if( convert.getArchive() != null ) {
+                    setStoredExtensions(convert.getArchive(), archiveStore);
+                }
             } else if( "-targetPath".equals(arg) ) {
                 convert.setTargetAssetPath(it.next());
             } else if( "-script".equals(arg) ) {
                 convert.addModelScript(it.next());
+            } else if( "-batch".equals(arg) ) {
+                convert.addModelProcessor(new BatchProcessor(Float.parseFloat(it.next())));
+            } else if( "-vertexCache".equals(arg) ) {
+                convert.addModelProcessor(new VertexCacheProcessor());
+            } else if( "-quantize".equals(arg) ) {
+                quantize = new QuantizeProcessor();
+                convert.addModelProcessor(quantize);
+            } else if( "-quantizeTolerance".equals(arg) ) {
+                if( quantize == null ) {
+                    throw new IllegalArgumentException("-quantizeTolerance must come after -quantize");
+                }
+                String[] parts = it.next().split("=");
+                quantize.setTolerance(VertexBuffer.Type.valueOf(parts[0]), Float.parseFloat(parts[1]));
+            } else if( "-lod".equals(arg) ) {
+                String[] parts = it.next().split(",");
+                float[] reductions = new float[parts.length];
+                for( int i = 0; i < parts.length; i++ ) {
+                    reductions[i] = Float.parseFloat(parts[i].trim());
+                }
+                if( lodExecutor == null ) {
+                    lodExecutor = LodProcessor.createExecutor(Runtime.getRuntime().availableProcessors());
+                }
+                LodProcessor lod = new LodProcessor(lodExecutor);
+                lod.setReductionValues(reductions);
+                convert.addModelProcessor(lod);
             } else if( "-probe".equals(arg) ) {
                 convert.setProbeOptions(it.next());
+            } else if( "-incremental".equals(arg) ) {
+                convert.setIncremental(true);
+            } else if( "-threads".equals(arg) ) {
+                threads = Integer.parseInt(it.next());
+            } else if( "-copyMode".equals(arg) ) {
+                convert.getFileCopier().setMode(FileCopier.Mode.valueOf(it.next().toUpperCase()));
+            } else if( "-copyEveryModel".equals(arg) ) {
+                convert.setCopyRegistry(null);
+            } else if( "-copyCheck".equals(arg) ) {
+                convert.getFileCopier().setCheck(FileCopier.Check.valueOf(it.next().toUpperCase()));
+            } else if( "-ioThreads".equals(arg) ) {
+                int count = Integer.parseInt(it.next());
+                if( copyExecutor != null ) {
+                    copyExecutor.shutdown();
+                }
+                copyExecutor = count > 0 ? AssetWriter.createCopyExecutor(count) : null;
+                convert.setCopyExecutor(copyExecutor);
+            } else if( "-compress".equals(arg) ) {
+                convert.setCompressionLevel(Integer.parseInt(it.next()));
+            } else if( "-dedup".equals(arg) ) {
+                convert.setContentStore(new ContentStore());
+            } else if( "-textureMaxSize".equals(arg) ) {
+                getTextureEncoder(convert).setMaxSize(Integer.parseInt(it.next()));
+            } else if( "-textureFormat".equals(arg) ) {
+                getTextureEncoder(convert).setFormat(TextureEncoder.Format.valueOf(it.next().toUpperCase()));
+            } else if( "-textureStore".equals(arg) ) {
+                getTextureEncoder(convert).setCacheDir(new File(it.next()));
+            } else if( "-textureCache".equals(arg) ) {
+                convert.setTextureCache(new TextureCache(Long.parseLong(it.next()) * 1024 * 1024));
+            } else if( "-placeholderTextures".equals(arg) ) {
+                convert.setPlaceholderTextures(true);
+            } else if( "-keepBuffers".equals(arg) ) {
+                convert.setReleaseBuffers(false);
+            } else if( "-mmap".equals(arg) ) {
+                convert.setMemoryMapped(true);
+            } else if( "-report".equals(arg) ) {
+                reportFile = new File(it.next());
+            } else if( "-pipeline".equals(arg) ) {
+                pipeline = true;
+            } else if( "-scan".equals(arg) ) {
+                scan = true;
+            } else if( "-server".equals(arg) ) {
+                String mode = it.next();
+                ConvertServer server = new ConvertServer(convert);
+                if( "stdin".equals(mode) ) {
+                    server.serve(System.in, responses);
+                } else {
+                    server.listen(Integer.parseInt(mode));
+                }
+            } else if( "-extensions".equals(arg) ) {
+                extensions = it.next().split(",");
             } else {
-                convert.convert(new File(arg));
+                Iterator<File> models = convert.findModels(arg, extensions);
+                while( models.hasNext() ) {
+                    File f = models.next();
+                    if( scan ) {
+                        logScan(f, convert.scan(f));
+                    } else if( threads > 1 ) {
+                        if( queue == null ) {
+                            queue = new BatchConvert(convert, threads);
+                        }
+                        queue.submit(f);
+                    } else if( pipeline ) {
+                        if( queue == null ) {
+                            queue = new ConvertPipeline(convert);
+                        }
+                        queue.submit(f);
+                    } else {
+                        convert.convert(f);
+                    }
+                }
             }
         }
+        if( queue != null ) {
+            queue.finish();
+        }
+        convert.saveBuildManifest();
+        convert.closeArchive();
+        if( copyExecutor != null ) {
+            copyExecutor.shutdown();
+        }
+        if( lodExecutor != null ) {
+            lodExecutor.shutdown();
+        }
+
+        report.finish();
+        report.logSummary();
+        if( convert.getTextureCache() != null ) {
+            convert.getTextureCache().logStats();
+        }
+        if( convert.getCopyRegistry() != null && convert.getCopyRegistry().getSkippedCount() > 0 ) {
+            log.info("Skipped " + convert.getCopyRegistry().getSkippedCount()
+                     + " copies of dependencies shared between models.");
+        }
+        if( convert.getContentStore() != null && convert.getContentStore().getDuplicateCount() > 0 ) {
+            log.info(String.format("Found %d duplicate dependency file(s), %.2f mb, with the same content as others.",
+                                   convert.getContentStore().getDuplicateCount(),
+                                   convert.getContentStore().getDuplicateBytes() / (1024.0 * 1024.0)));
+        }
+        if( convert.getTextureEncoder() != null ) {
+            log.info("Encoded " + convert.getTextureEncoder().getEncodedCount() + " texture(s), "
+                     + convert.getTextureEncoder().getCachedCount() + " already encoded.");
+        }
+        if( reportFile != null ) {
+            report.writeJson(reportFile);
+        }
 
         if( args.length == 0 && test ) {
             boolean testConvert = false;
@@ -0,0 +1,234 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.*;
+
+/**
+ *  Converts models with a single Convert instance but with the loading,
+ *  processing, and writing of each model running in separate stages on
+ *  their own threads.  While model N is being processed by the scripts,
+ *  model N+1 can be loading and model N-1 can be writing to disk.  The
+ *  stages are connected by small bounded queues so that at most a few
+ *  models are in memory at once.
+ *
+ *  <p>Models still go through the stages in the order they were submitted
+ *  so the output is the same as calling Convert.convert() for each model.
+ *  Model scripts run on the process stage's thread while the load stage
+ *  is using the same AssetManager.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class ConvertPipeline implements ConvertQueue {
+
+    static Logger log = LoggerFactory.getLogger(ConvertPipeline.class);
+
+    private static final Object END = new Object();
+
+    private final Convert convert;
+    private final BlockingQueue<Object> loadQueue;
+    private final BlockingQueue<Object> processQueue;
+    private final BlockingQueue<Object> writeQueue;
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<File> failed = Collections.synchronizedList(new ArrayList<File>());
+    private boolean finished;
+
+    public ConvertPipeline( Convert convert ) {
+        this(convert, 2);
+    }
+
+    public ConvertPipeline( Convert convert, int queueSize ) {
+        this.convert = convert;
+        queueSize = Math.max(1, queueSize);
+        this.loadQueue = new ArrayBlockingQueue<>(queueSize);
+        this.processQueue = new ArrayBlockingQueue<>(queueSize);
+        this.writeQueue = new ArrayBlockingQueue<>(queueSize);
+
+        // Make sure the processor list is settled before the stages
+        // start looking at it from different threads.
+        convert.checkProcessors();
+
+        stages.add(new LoadStage());
+        stages.add(new ProcessStage());
+        stages.add(new WriteStage());
+        for( Stage stage : stages ) {
+            stage.start();
+        }
+    }
+
+    public Convert getConvert() {
+        return convert;
+    }
+
+    @Override
+    public void submit( File model ) throws InterruptedException {
+        if( finished ) {
+            throw new IllegalStateException("Pipeline is already finished.");
+        }
+        loadQueue.put(model);
+    }
+
+    @Override
+    public void finish() throws InterruptedException {
+        if( !finished ) {
+            finished = true;
+            loadQueue.put(END);
+        }
+        for( Stage stage : stages ) {
+            stage.join();
+        }
+        if( !failed.isEmpty() ) {
+            throw new RuntimeException("Error converting " + failed.size() + " model(s):" + failed);
+        }
+    }
+
+    /**
+     *  Returns the models that have failed to convert so far.
+     */
+    public List<File> getFailed() {
+        synchronized( failed ) {
+            return new ArrayList<>(failed);
+        }
+    }
+
+    private abstract class Stage extends Thread {
+        private final BlockingQueue<Object> in;
+        private final BlockingQueue<Object> out;
+
+        public Stage( String name, BlockingQueue<Object> in, BlockingQueue<Object> out ) {
+            super("jmec-" + name);
+            this.in = in;
+            this.out = out;
+        }
+
+        protected abstract Object handle( Object item ) throws Exception;
+
+        protected abstract File getFile( Object item );
+
+        @Override
+        public void run() {
+            try {
+                while( true ) {
+                    Object item = in.take();
+                    if( item == END ) {
+                        break;
+                    }
+                    Object result;
+                    try {
+                        result = handle(item);
+                    } catch( Throwable t ) {
+                        // Errors like OutOfMemoryError are likely with very large
+                        // models and only fail that model
+                        log.error("Error converting:" + getFile(item), t);
+                        failed.add(getFile(item));
+                        result = null;
+                    }
+                    if( result != null && out != null ) {
+                        out.put(result);
+                    }
+                }
+            } catch( InterruptedException e ) {
+                log.warn("Pipeline stage interrupted:" + getName());
+            } finally {
+                // Always let the next stage know that there is nothing more
+                // coming so that it, and finish(), can't wait forever
+                if( out != null ) {
+                    try {
+                        out.put(END);
+                    } catch( InterruptedException e ) {
+                        log.warn("Pipeline stage interrupted:" + getName());
+                    }
+                }
+            }
+        }
+    }
+
+    private class LoadStage extends Stage {
+        public LoadStage() {
+            super("load", loadQueue, processQueue);
+        }
+
+        @Override
+        protected Object handle( Object item ) throws Exception {
+            return convert.load((File)item);
+        }
+
+        @Override
+        protected File getFile( Object item ) {
+            return (File)item;
+        }
+    }
+
+    private class ProcessStage extends Stage {
+        public ProcessStage() {
+            super("process", processQueue, writeQueue);
+        }
+
+        @Override
+        protected Object handle( Object item ) throws Exception {
+            convert.process((ModelInfo)item);
+            return item;
+        }
+
+        @Override
+        protected File getFile( Object item ) {
+            return ((ModelInfo)item).getSourceFile();
+        }
+    }
+
+    private class WriteStage extends Stage {
+        public WriteStage() {
+            super("write", writeQueue, null);
+        }
+
+        @Override
+        protected Object handle( Object item ) throws Exception {
+            convert.write((ModelInfo)item);
+            return null;
+        }
+
+        @Override
+        protected File getFile( Object item ) {
+            return ((ModelInfo)item).getSourceFile();
+        }
+    }
+}
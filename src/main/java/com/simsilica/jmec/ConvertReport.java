@@ -0,0 +1,361 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.gson.*;
+
+/**
+ *  Collects timing and throughput information for a conversion run.
+ *  Each converted model gets a ModelReport (see ModelInfo.getReport())
+ *  that records how long the model took to load, how long each model
+ *  processor took, and how long each file written by the AssetWriter took.
+ *  The ConvertReport collects the model reports from all threads and can
+ *  write them out as JSON or log an aggregate summary.
+ *
+ *  @author    Paul Speed
+ */
+public class ConvertReport {
+
+    static Logger log = LoggerFactory.getLogger(ConvertReport.class);
+
+    public static final String LOAD = "load";
+
+    private final long startTime = System.nanoTime();
+    private long endTime;
+    private final List<ModelReport> models = new ArrayList<>();
+    private final List<String> skipped = new ArrayList<>();
+
+    public ConvertReport() {
+    }
+
+    public synchronized void addModel( ModelReport model ) {
+        models.add(model);
+    }
+
+    public synchronized void addSkipped( File model ) {
+        skipped.add(model.getPath());
+    }
+
+    public synchronized List<ModelReport> getModels() {
+        return new ArrayList<>(models);
+    }
+
+    /**
+     *  Returns the paths of the models that were skipped because they
+     *  were already up to date.
+     */
+    public synchronized List<String> getSkipped() {
+        return new ArrayList<>(skipped);
+    }
+
+    /**
+     *  Marks the end of the run for throughput calculations.  If this is
+     *  never called then the current time is used.
+     */
+    public synchronized void finish() {
+        endTime = System.nanoTime();
+    }
+
+    public synchronized double getElapsedSeconds() {
+        long end = endTime == 0 ? System.nanoTime() : endTime;
+        return (end - startTime) / 1000000000.0;
+    }
+
+    /**
+     *  Logs a summary of the run including models/sec, MB/sec, and the total
+     *  time spent in each phase of conversion.
+     */
+    public void logSummary() {
+        Summary summary = createSummary();
+        log.info(String.format("Converted %d model(s), skipped %d, in %.2f s: %.2f models/sec",
+                               summary.modelCount, summary.skippedCount,
+                               summary.elapsedSeconds, summary.modelsPerSecond));
+        log.info(String.format("Read %.2f mb (%.2f mb/sec), wrote %.2f mb (%.2f mb/sec)",
+                               summary.mbRead, summary.mbReadPerSecond,
+                               summary.mbWritten, summary.mbWrittenPerSecond));
+        if( summary.mbSaved > 0 ) {
+            log.info(String.format("Saved %.2f mb by compressing j3o files", summary.mbSaved));
+        }
+        if( summary.mbReleased > 0 ) {
+            log.info(String.format("Released %.2f mb of direct memory, %.2f mb still in use",
+                                   summary.mbReleased, summary.mbDirectInUse));
+        }
+        if( summary.modelCount == 0 ) {
+            return;
+        }
+        double total = 0;
+        for( double ms : summary.phases.values() ) {
+            total += ms;
+        }
+        log.info("Time per phase (all threads):");
+        for( Map.Entry<String, Double> e : summary.phases.entrySet() ) {
+            log.info(String.format("  %-30s %10.1f ms  %5.1f%%", e.getKey(), e.getValue(),
+                                   total > 0 ? e.getValue() * 100 / total : 0));
+        }
+        if( !summary.writes.isEmpty() ) {
+            log.info("Files written:");
+            for( Map.Entry<String, WriteTotal> e : summary.writes.entrySet() ) {
+                WriteTotal w = e.getValue();
+                log.info(String.format("  %-30s %10.1f ms  %6d file(s)  %.2f mb",
+                                       e.getKey(), w.ms, w.count, w.bytes / (1024.0 * 1024.0)));
+            }
+        }
+    }
+
+    /**
+     *  Writes the per-model and aggregate results to the specified file
+     *  as JSON.
+     */
+    public void writeJson( File file ) throws IOException {
+        JsonObject root = new JsonObject();
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        root.add("summary", gson.toJsonTree(createSummary()));
+        synchronized( this ) {
+            root.add("models", gson.toJsonTree(models));
+            root.add("skipped", gson.toJsonTree(skipped));
+        }
+        log.info("Writing report:" + file);
+        File parent = file.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        Files.write(gson.toJson(root), file, Charsets.UTF_8);
+    }
+
+    protected synchronized Summary createSummary() {
+        Summary result = new Summary();
+        result.modelCount = models.size();
+        result.skippedCount = skipped.size();
+        result.elapsedSeconds = getElapsedSeconds();
+        long read = 0;
+        long written = 0;
+        long released = 0;
+        long saved = 0;
+        for( ModelReport model : models ) {
+            read += model.bytesRead;
+            written += model.bytesWritten;
+            released += model.bytesReleased;
+            saved += model.getBytesSaved();
+            add(result.phases, LOAD, model.loadMs);
+            for( Map.Entry<String, Double> e : model.processors.entrySet() ) {
+                add(result.phases, e.getKey(), e.getValue());
+            }
+            for( WriteReport w : model.writes ) {
+                WriteTotal total = result.writes.get(w.type);
+                if( total == null ) {
+                    total = new WriteTotal();
+                    result.writes.put(w.type, total);
+                }
+                total.count++;
+                total.ms += w.ms;
+                total.bytes += w.bytes;
+            }
+        }
+        double seconds = Math.max(result.elapsedSeconds, 0.000001);
+        result.mbRead = read / (1024.0 * 1024.0);
+        result.mbWritten = written / (1024.0 * 1024.0);
+        result.mbReleased = released / (1024.0 * 1024.0);
+        result.mbSaved = saved / (1024.0 * 1024.0);
+        result.mbDirectInUse = DirectBuffers.getDirectMemoryUsed() / (1024.0 * 1024.0);
+        result.modelsPerSecond = result.modelCount / seconds;
+        result.mbReadPerSecond = result.mbRead / seconds;
+        result.mbWrittenPerSecond = result.mbWritten / seconds;
+        return result;
+    }
+
+    private static void add( Map<String, Double> map, String key, double value ) {
+        Double existing = map.get(key);
+        map.put(key, existing == null ? value : existing + value);
+    }
+
+    protected static double toMillis( long nanos ) {
+        return nanos / 1000000.0;
+    }
+
+    /**
+     *  The timing information for a single model.  A model report is only
+     *  ever accessed by one thread at a time except for addWrite(), which may
+     *  also be called from the AssetWriter's copy threads.
+     */
+    public static class ModelReport {
+        private String model;
+        private String name;
+        private double loadMs;
+        private long bytesRead;
+        private long bytesWritten;
+        private long bytesReleased;
+        private long bytesSaved;
+        private Map<String, Double> processors = new LinkedHashMap<>();
+        private List<WriteReport> writes = new ArrayList<>();
+
+        public ModelReport( String name ) {
+            this.name = name;
+        }
+
+        public void setSource( File source, Collection<File> loadedFiles ) {
+            this.model = source.getPath();
+            long total = 0;
+            for( File f : loadedFiles ) {
+                total += f.length();
+            }
+            this.bytesRead = total;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public void setName( String name ) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setLoadTime( long nanos ) {
+            this.loadMs = toMillis(nanos);
+        }
+
+        public double getLoadMillis() {
+            return loadMs;
+        }
+
+        public void addProcessorTime( String processor, long nanos ) {
+            add(processors, processor, toMillis(nanos));
+        }
+
+        public Map<String, Double> getProcessorMillis() {
+            return Collections.unmodifiableMap(processors);
+        }
+
+        /**
+         *  Records the time it took to write a file for this model, either a
+         *  copied dependency, a generated dependency, or the model itself.
+         */
+        public void addWrite( String type, File file, long nanos ) {
+            addWrite(type, file.getPath(), file.length(), nanos);
+        }
+
+        /**
+         *  Records the time it took to write something that is not a
+         *  plain file, ie: an archive entry.
+         */
+        public synchronized void addWrite( String type, String path, long size, long nanos ) {
+            writes.add(new WriteReport(type, path, toMillis(nanos), size));
+            bytesWritten += size;
+        }
+
+        /**
+         *  Records the amount of direct memory that was explicitly freed
+         *  after writing the model.
+         */
+        public void setBytesReleased( long bytes ) {
+            this.bytesReleased = bytes;
+        }
+
+        public long getBytesReleased() {
+            return bytesReleased;
+        }
+
+        /**
+         *  Records the uncompressed and compressed sizes of a compressed
+         *  j3o file written for this model.
+         */
+        public synchronized void addCompression( long rawBytes, long compressedBytes ) {
+            bytesSaved += rawBytes - compressedBytes;
+        }
+
+        /**
+         *  Returns the number of bytes saved by compressing this model's j3o
+         *  files.
+         */
+        public synchronized long getBytesSaved() {
+            return bytesSaved;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public synchronized long getBytesWritten() {
+            return bytesWritten;
+        }
+    }
+
+    private static class WriteReport {
+        String type;
+        String file;
+        double ms;
+        long bytes;
+
+        public WriteReport( String type, String file, double ms, long bytes ) {
+            this.type = type;
+            this.file = file;
+            this.ms = ms;
+            this.bytes = bytes;
+        }
+    }
+
+    private static class WriteTotal {
+        int count;
+        double ms;
+        long bytes;
+    }
+
+    private static class Summary {
+        int modelCount;
+        int skippedCount;
+        double elapsedSeconds;
+        double modelsPerSecond;
+        double mbRead;
+        double mbWritten;
+        double mbReadPerSecond;
+        double mbWrittenPerSecond;
+        double mbReleased;
+        double mbSaved;
+        double mbDirectInUse;
+        Map<String, Double> phases = new LinkedHashMap<>();
+        Map<String, WriteTotal> writes = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.google.common.base.Charsets;
+import com.google.gson.*;
+
+/**
+ *  Keeps a warmed up Convert around and runs conversion jobs that arrive
+ *  as JSON lines, either from a stream like stdin or from clients connected
+ *  to a local socket.  This avoids paying for JVM startup, asset manager
+ *  setup, and script compilation on every conversion.
+ *
+ *  <p>Each job is a single line JSON object like:</p>
+ *  <pre>
+ *  {"id":"1", "sourceRoot":"src", "targetRoot":"assets", "targetPath":"Models/Foo",
+ *   "scripts":["fixup.groovy"], "models":["foo.gltf", "props/**&#47;*.glb"]}
+ *  </pre>
+ *
+ *  <p>"sourceRoot", "targetRoot", and "models" are required.  The optional
+ *  fields are "targetPath", "scripts", "probe", "incremental", "extensions",
+ *  "libraryRoots", "ignoreCase", and "reindex".  Optional fields that a job
+ *  leaves out go back to the settings the Convert had when the server was
+ *  created, so nothing carries over from one job to the next.  Model files
+ *  and directories are relative to the job's "sourceRoot", the same as glob
+ *  patterns, unless they are absolute.  Each job gets a single line JSON
+ *  response with the job's id, a "status" of "ok" or "error", and counts of
+ *  the converted, skipped, and failed models.  A line of
+ *  {"command":"shutdown"} stops the server and {"command":"ping"} just
+ *  responds.  A "targetRoot" ending in .zip or .jar is written as an archive
+ *  that is finished at the end of the job.</p>
+ *
+ *  <p>Jobs are run one at a time using the same Convert and AssetReader.
+ *  Compiled model scripts are kept between jobs and only recompiled when
+ *  the script file changes.  Their bindings are reset at the start of each
+ *  job so script variables do not carry over, though static state in the
+ *  compiled script itself does.  A SourceIndex is only rebuilt when a job's
+ *  source roots differ from the last job's or when the job sets "reindex"
+ *  to true, ie: because files were added to the source tree.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class ConvertServer {
+
+    static Logger log = LoggerFactory.getLogger(ConvertServer.class);
+
+    private final Convert convert;
+    private final List<File> defaultLibraryRoots;
+    private final boolean defaultIgnoreCase;
+    private final String defaultProbeOptions;
+    private final String defaultTargetPath;
+    private final boolean defaultIncremental;
+    private final Map<String, ModelScript> scripts = new HashMap<>();
+    private final Gson gson = new Gson();
+    private volatile boolean shutdown;
+    private ServerSocket serverSocket;
+    private int clientCount;
+
+    public ConvertServer() {
+        this(new Convert());
+    }
+
+    public ConvertServer( Convert convert ) {
+        this.convert = convert;
+        this.defaultLibraryRoots = new ArrayList<>(convert.getLibraryRoots());
+        this.defaultIgnoreCase = convert.getIgnoreCase();
+        this.defaultProbeOptions = convert.getProbeOptions();
+        this.defaultTargetPath = convert.getTargetAssetPath();
+        this.defaultIncremental = convert.isIncremental();
+    }
+
+    public Convert getConvert() {
+        return convert;
+    }
+
+    /**
+     *  Reads jobs from the specified input and writes responses to the
+     *  specified output until the input is closed or a shutdown command is
+     *  received.
+     */
+    public void serve( InputStream in, OutputStream out ) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, Charsets.UTF_8));
+        String line;
+        while( !shutdown && (line = reader.readLine()) != null ) {
+            line = line.trim();
+            if( line.isEmpty() ) {
+                continue;
+            }
+            writer.write(gson.toJson(handle(line)));
+            writer.write("\n");
+            writer.flush();
+        }
+    }
+
+    /**
+     *  Listens for clients on the specified port of the loopback interface
+     *  until a shutdown command is received.  Each client gets its own
+     *  thread but jobs are still run one at a time.
+     */
+    public void listen( int port ) throws IOException {
+        synchronized( this ) {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        }
+        log.info("Listening for jobs on:" + serverSocket.getLocalSocketAddress());
+        try {
+            while( !shutdown ) {
+                final Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch( SocketException e ) {
+                    if( shutdown ) {
+                        break;
+                    }
+                    throw e;
+                }
+                Thread client = new Thread("jmec-client-" + (++clientCount)) {
+                    @Override
+                    public void run() {
+                        try( Socket s = socket ) {
+                            serve(s.getInputStream(), s.getOutputStream());
+                        } catch( IOException e ) {
+                            log.error("Error handling client:" + socket, e);
+                        }
+                    }
+                };
+                client.setDaemon(true);
+                client.start();
+            }
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    /**
+     *  Stops the server after any currently running job.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if( serverSocket != null ) {
+            try {
+                serverSocket.close();
+            } catch( IOException e ) {
+                log.warn("Error closing server socket", e);
+            }
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    protected JsonObject handle( String line ) {
+        JsonObject job;
+        try {
+            job = new JsonParser().parse(line).getAsJsonObject();
+        } catch( RuntimeException e ) {
+            log.error("Invalid job:" + line, e);
+            return error(null, "Invalid job:" + e.getMessage());
+        }
+        JsonElement id = job.get("id");
+        String command = getString(job, "command", "convert");
+        switch( command ) {
+            case "ping":
+                return status(id, "ok");
+            case "shutdown":
+                shutdown();
+                return status(id, "ok");
+            case "convert":
+                try {
+                    return runJob(job);
+                } catch( RuntimeException e ) {
+                    log.error("Error running job:" + line, e);
+                    return error(id, String.valueOf(e.getMessage()));
+                }
+            default:
+                return error(id, "Unknown command:" + command);
+        }
+    }
+
+    /**
+     *  Configures the Convert from the specified job, converts all of the job's
+     *  models, and returns the response.
+     */
+    public synchronized JsonObject runJob( JsonObject job ) {
+        JsonElement id = job.get("id");
+        String sourceRoot = getString(job, "sourceRoot", null);
+        if( sourceRoot == null ) {
+            return error(id, "No sourceRoot specified");
+        }
+        File source = new File(sourceRoot);
+        if( !source.isDirectory() ) {
+            return error(id, "Source root is not a directory:" + source);
+        }
+        String targetRoot = getString(job, "targetRoot", null);
+        if( targetRoot == null ) {
+            return error(id, "No targetRoot specified");
+        }
+        if( !job.has("models") ) {
+            return error(id, "No models specified");
+        }
+
+        // Reset everything a job can set before applying this job
+        List<File> libraryRoots = defaultLibraryRoots;
+        if( job.has("libraryRoots") ) {
+            libraryRoots = new ArrayList<>();
+            for( String name : getStrings(job, "libraryRoots") ) {
+                libraryRoots.add(new File(name));
+            }
+        }
+        boolean ignoreCase = getBoolean(job, "ignoreCase", defaultIgnoreCase);
+        if( getBoolean(job, "reindex", false)
+            || !source.equals(convert.getSourceRoot())
+            || !libraryRoots.equals(convert.getLibraryRoots())
+            || ignoreCase != convert.getIgnoreCase() ) {
+            convert.setSourceRoots(source, libraryRoots, ignoreCase);
+        }
+        convert.setTargetRoot(new File(targetRoot));
+        convert.setTargetAssetPath(getString(job, "targetPath", defaultTargetPath));
+        convert.clearProbeOptions();
+        String probe = getString(job, "probe", defaultProbeOptions);
+        if( probe != null ) {
+            convert.setProbeOptions(probe);
+        }
+        convert.setIncremental(getBoolean(job, "incremental", defaultIncremental));
+
+        convert.clearModelScripts();
+        for( String name : getStrings(job, "scripts") ) {
+            convert.addModelScript(getScript(name));
+        }
+
+        String[] extensions = ModelScanner.DEFAULT_EXTENSIONS;
+        if( job.has("extensions") ) {
+            extensions = getStrings(job, "extensions").toArray(new String[0]);
+        }
+
+        ConvertReport previous = convert.getReport();
+        ConvertReport report = new ConvertReport();
+        convert.setReport(report);
+        // Source files may have changed since the last job
+        CopyRegistry previousRegistry = convert.getCopyRegistry();
+        if( previousRegistry != null ) {
+            convert.setCopyRegistry(new CopyRegistry());
+        }
+        List<String> failed = new ArrayList<>();
+        try {
+            for( String model : getStrings(job, "models") ) {
+                if( !ModelScanner.isPattern(model) && !new File(model).isAbsolute() ) {
+                    model = new File(source, model).getPath();
+                }
+                for( Iterator<File> it = convert.findModels(model, extensions); it.hasNext(); ) {
+                    File f = it.next();
+                    if( !f.exists() ) {
+                        log.error("File doesn't exist:" + f);
+                        failed.add(f.getPath());
+                        continue;
+                    }
+                    try {
+                        convert.convert(f);
+                    } catch( Exception e ) {
+                        log.error("Error converting:" + f, e);
+                        failed.add(f.getPath());
+                    }
+                }
+            }
+        } finally {
+            convert.saveBuildManifest();
+            convert.setReport(previous);
+            convert.setCopyRegistry(previousRegistry);
+            report.finish();
+            convert.closeArchive();
+        }
+        report.logSummary();
+
+        JsonObject result = status(id, failed.isEmpty() ? "ok" : "error");
+        result.addProperty("converted", report.getModels().size());
+        result.addProperty("skipped", report.getSkipped().size());
+        result.add("failed", gson.toJsonTree(failed));
+        result.addProperty("seconds", report.getElapsedSeconds());
+        return result;
+    }
+
+    /**
+     *  Returns the compiled script for the specified script file, reusing
+     *  the one from a previous job if the script text has not changed.
+     *  A reused script gets fresh bindings like a newly compiled one.
+     */
+    protected ModelScript getScript( String name ) {
+        String text = ModelScript.loadScript(name);
+        ModelScript script = scripts.get(name);
+        if( script == null || !text.equals(script.getScript()) ) {
+            log.info("Compiling script:" + name);
+            script = new ModelScript(convert, name, text);
+            scripts.put(name, script);
+        } else {
+            script.resetBindings();
+        }
+        return script;
+    }
+
+    private static String getString( JsonObject job, String name, String defaultValue ) {
+        JsonElement e = job.get(name);
+        if( e == null || e.isJsonNull() ) {
+            return defaultValue;
+        }
+        return e.getAsString();
+    }
+
+    private static boolean getBoolean( JsonObject job, String name, boolean defaultValue ) {
+        JsonElement e = job.get(name);
+        if( e == null || e.isJsonNull() ) {
+            return defaultValue;
+        }
+        return e.getAsBoolean();
+    }
+
+    private static List<String> getStrings( JsonObject job, String name ) {
+        JsonElement e = job.get(name);
+        if( e == null || e.isJsonNull() ) {
+            return Collections.emptyList();
+        }
+        if( !e.isJsonArray() ) {
+            return Collections.singletonList(e.getAsString());
+        }
+        List<String> result = new ArrayList<>();
+        for( JsonElement item : e.getAsJsonArray() ) {
+            result.add(item.getAsString());
+        }
+        return result;
+    }
+
+    private static JsonObject status( JsonElement id, String status ) {
+        JsonObject result = new JsonObject();
+        if( id != null ) {
+            result.add("id", id);
+        }
+        result.addProperty("status", status);
+        return result;
+    }
+
+    private static JsonObject error( JsonElement id, String message ) {
+        JsonObject result = status(id, "error");
+        result.addProperty("error", message);
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.File;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.*;
+
+/**
+ *  Keeps track of the dependency files that have already been copied to
+ *  the target during a run so that models sharing the same textures, etc.
+ *  only copy them once.  A single registry can be shared by any number of
+ *  AssetWriters on any number of threads.  If a copy of the same file is
+ *  already in progress on another thread then claim() will wait for it
+ *  to finish.
+ *
+ *  <p>The registry assumes that the source files do not change during
+ *  the run.  Long running applications should create a new registry for
+ *  each batch of models.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class CopyRegistry {
+
+    static Logger log = LoggerFactory.getLogger(CopyRegistry.class);
+
+    private final ConcurrentMap<File, Entry> copies = new ConcurrentHashMap<>();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    public CopyRegistry() {
+    }
+
+    /**
+     *  Returns true if the caller should copy source to target, in which
+     *  case the caller must call complete() when the copy is done or has
+     *  failed.  Returns false if the same source file has already been
+     *  copied to the target during this run.
+     */
+    public boolean claim( File source, File target ) throws InterruptedException {
+        source = normalize(source);
+        target = normalize(target);
+        Entry entry = new Entry(source);
+        while( true ) {
+            Entry existing = copies.putIfAbsent(target, entry);
+            if( existing == null ) {
+                return true;
+            }
+            existing.done.await();
+            if( existing.failed || !existing.source.equals(source) ) {
+                if( !existing.failed ) {
+                    log.warn("Replacing:" + target + " copied from:" + existing.source + " with:" + source);
+                }
+                // Take over the entry if nobody else beat us to it
+                if( copies.replace(target, existing, entry) ) {
+                    return true;
+                }
+                continue;
+            }
+            skipped.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     *  Called by the claiming writer after copying source to target.
+     */
+    public void complete( File target, boolean success ) {
+        Entry entry = copies.get(normalize(target));
+        if( entry == null ) {
+            throw new IllegalStateException("Target was not claimed:" + target);
+        }
+        entry.failed = !success;
+        entry.done.countDown();
+    }
+
+    /**
+     *  Returns true if the specified target has been successfully copied
+     *  during this run.
+     */
+    public boolean isCopied( File target ) {
+        Entry entry = copies.get(normalize(target));
+        return entry != null && entry.done.getCount() == 0 && !entry.failed;
+    }
+
+    /**
+     *  Returns the number of copies that were skipped because the file
+     *  had already been copied.
+     */
+    public int getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     *  Returns the number of distinct target files that have been copied.
+     */
+    public int getCopiedCount() {
+        return copies.size();
+    }
+
+    private static File normalize( File f ) {
+        return f.getAbsoluteFile().toPath().normalize().toFile();
+    }
+
+    private static class Entry {
+        final File source;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean failed;
+
+        public Entry( File source ) {
+            this.source = source;
+        }
+    }
+}
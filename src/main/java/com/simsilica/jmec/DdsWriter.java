@@ -0,0 +1,327 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ *  Writes 2D images and their mip levels as DDS files that jME's DDSLoader
+ *  can read, either as uncompressed 32 bit BGRA pixels or block compressed
+ *  as DXT1 or DXT5.
+ *
+ *  <p>Each level is an array of ARGB pixels (as from BufferedImage.getRGB())
+ *  with the top row first, which is the row order DDS files use.  The
+ *  DXT compression is a simple pure Java one that picks the colors at the
+ *  ends of each block's bounding box, inset slightly, as end points.  It
+ *  is fast and good enough for most color textures but it is not as
+ *  good as offline compressors that search for the best end points.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class DdsWriter {
+
+    public enum Format {
+        /** Uncompressed 32 bit pixels with alpha. */
+        RGBA8,
+        /** 4 bits per pixel block compression without alpha. */
+        DXT1,
+        /** 8 bits per pixel block compression with interpolated alpha. */
+        DXT5
+    }
+
+    private static final int DDSD_CAPS = 0x1;
+    private static final int DDSD_HEIGHT = 0x2;
+    private static final int DDSD_WIDTH = 0x4;
+    private static final int DDSD_PITCH = 0x8;
+    private static final int DDSD_PIXELFORMAT = 0x1000;
+    private static final int DDSD_MIPMAPCOUNT = 0x20000;
+    private static final int DDSD_LINEARSIZE = 0x80000;
+
+    private static final int DDPF_ALPHAPIXELS = 0x1;
+    private static final int DDPF_FOURCC = 0x4;
+    private static final int DDPF_RGB = 0x40;
+
+    private static final int DDSCAPS_COMPLEX = 0x8;
+    private static final int DDSCAPS_TEXTURE = 0x1000;
+    private static final int DDSCAPS_MIPMAP = 0x400000;
+
+    private final Format format;
+
+    public DdsWriter( Format format ) {
+        this.format = format;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     *  Writes the specified levels to the stream where level 0 is width x height
+     *  and each level after that is half the size of the last, rounded down
+     *  but never less than 1.
+     */
+    public void write( List<int[]> levels, int width, int height, OutputStream out ) throws IOException {
+        DataOutputStream dOut = new DataOutputStream(new BufferedOutputStream(out));
+        writeHeader(dOut, width, height, levels.size());
+        int w = width;
+        int h = height;
+        for( int[] pixels : levels ) {
+            if( pixels.length != w * h ) {
+                throw new IllegalArgumentException("Level size mismatch, expected:" + w + "x" + h);
+            }
+            switch( format ) {
+                case RGBA8:
+                    for( int argb : pixels ) {
+                        // BGRA byte order
+                        dOut.writeInt(Integer.reverseBytes(argb));
+                    }
+                    break;
+                case DXT1:
+                case DXT5:
+                    writeBlocks(dOut, pixels, w, h);
+                    break;
+            }
+            w = Math.max(1, w / 2);
+            h = Math.max(1, h / 2);
+        }
+        dOut.flush();
+    }
+
+    protected void writeHeader( DataOutputStream out, int width, int height, int levelCount ) throws IOException {
+        boolean compressed = format != Format.RGBA8;
+        int flags = DDSD_CAPS | DDSD_HEIGHT | DDSD_WIDTH | DDSD_PIXELFORMAT;
+        flags |= compressed ? DDSD_LINEARSIZE : DDSD_PITCH;
+        if( levelCount > 1 ) {
+            flags |= DDSD_MIPMAPCOUNT;
+        }
+        writeInt(out, 0x20534444); // "DDS "
+        writeInt(out, 124);
+        writeInt(out, flags);
+        writeInt(out, height);
+        writeInt(out, width);
+        if( compressed ) {
+            writeInt(out, ((width + 3) / 4) * ((height + 3) / 4) * getBlockSize());
+        } else {
+            writeInt(out, width * 4);
+        }
+        writeInt(out, 0); // depth
+        writeInt(out, levelCount);
+        for( int i = 0; i < 11; i++ ) {
+            writeInt(out, 0);
+        }
+
+        // Pixel format
+        writeInt(out, 32);
+        if( compressed ) {
+            writeInt(out, DDPF_FOURCC);
+            writeInt(out, format == Format.DXT1 ? 0x31545844 : 0x35545844); // "DXT1" or "DXT5"
+            for( int i = 0; i < 5; i++ ) {
+                writeInt(out, 0);
+            }
+        } else {
+            writeInt(out, DDPF_RGB | DDPF_ALPHAPIXELS);
+            writeInt(out, 0);
+            writeInt(out, 32);
+            writeInt(out, 0x00ff0000);
+            writeInt(out, 0x0000ff00);
+            writeInt(out, 0x000000ff);
+            writeInt(out, 0xff000000);
+        }
+
+        int caps = DDSCAPS_TEXTURE;
+        if( levelCount > 1 ) {
+            caps |= DDSCAPS_COMPLEX | DDSCAPS_MIPMAP;
+        }
+        writeInt(out, caps);
+        for( int i = 0; i < 4; i++ ) {
+            writeInt(out, 0);
+        }
+    }
+
+    private int getBlockSize() {
+        return format == Format.DXT1 ? 8 : 16;
+    }
+
+    private static void writeInt( DataOutputStream out, int value ) throws IOException {
+        out.writeInt(Integer.reverseBytes(value));
+    }
+
+    private static void writeShort( DataOutputStream out, int value ) throws IOException {
+        out.writeShort(Short.reverseBytes((short)value));
+    }
+
+    protected void writeBlocks( DataOutputStream out, int[] pixels, int width, int height ) throws IOException {
+        int[] block = new int[16];
+        for( int by = 0; by < height; by += 4 ) {
+            for( int bx = 0; bx < width; bx += 4 ) {
+                // Blocks that hang off the edge repeat the last row/column
+                for( int y = 0; y < 4; y++ ) {
+                    int row = Math.min(by + y, height - 1) * width;
+                    for( int x = 0; x < 4; x++ ) {
+                        block[y * 4 + x] = pixels[row + Math.min(bx + x, width - 1)];
+                    }
+                }
+                if( format == Format.DXT5 ) {
+                    writeAlphaBlock(out, block);
+                }
+                writeColorBlock(out, block);
+            }
+        }
+    }
+
+    /**
+     *  Writes a DXT5 alpha block using the block's alpha range as the end
+     *  points and 8 interpolated alpha values.
+     */
+    protected static void writeAlphaBlock( DataOutputStream out, int[] block ) throws IOException {
+        int min = 255;
+        int max = 0;
+        for( int argb : block ) {
+            int a = argb >>> 24;
+            min = Math.min(min, a);
+            max = Math.max(max, a);
+        }
+        out.writeByte(max);
+        out.writeByte(min);
+        long bits = 0;
+        if( max > min ) {
+            int[] palette = new int[8];
+            palette[0] = max;
+            palette[1] = min;
+            for( int i = 1; i < 7; i++ ) {
+                palette[i + 1] = ((7 - i) * max + i * min) / 7;
+            }
+            for( int i = 0; i < 16; i++ ) {
+                int a = block[i] >>> 24;
+                int best = 0;
+                int bestError = Integer.MAX_VALUE;
+                for( int j = 0; j < 8; j++ ) {
+                    int error = Math.abs(a - palette[j]);
+                    if( error < bestError ) {
+                        best = j;
+                        bestError = error;
+                    }
+                }
+                bits |= (long)best << (i * 3);
+            }
+        }
+        // 48 bits of indexes, least significant byte first
+        for( int i = 0; i < 6; i++ ) {
+            out.writeByte((int)(bits >>> (i * 8)) & 0xff);
+        }
+    }
+
+    /**
+     *  Writes a DXT1 style color block in four color mode.
+     */
+    protected static void writeColorBlock( DataOutputStream out, int[] block ) throws IOException {
+        int minR = 255, minG = 255, minB = 255;
+        int maxR = 0, maxG = 0, maxB = 0;
+        for( int argb : block ) {
+            int r = (argb >> 16) & 0xff;
+            int g = (argb >> 8) & 0xff;
+            int b = argb & 0xff;
+            minR = Math.min(minR, r);
+            minG = Math.min(minG, g);
+            minB = Math.min(minB, b);
+            maxR = Math.max(maxR, r);
+            maxG = Math.max(maxG, g);
+            maxB = Math.max(maxB, b);
+        }
+
+        // Inset the bounding box a little to account for the end points
+        // being used less than the colors in between
+        int insetR = (maxR - minR) >> 4;
+        int insetG = (maxG - minG) >> 4;
+        int insetB = (maxB - minB) >> 4;
+        int c0 = to565(maxR - insetR, maxG - insetG, maxB - insetB);
+        int c1 = to565(minR + insetR, minG + insetG, minB + insetB);
+
+        int bits = 0;
+        if( c0 != c1 ) {
+            if( c0 < c1 ) {
+                // Four color mode needs c0 > c1
+                int swap = c0;
+                c0 = c1;
+                c1 = swap;
+            }
+            int[] palette = new int[12];
+            from565(c0, palette, 0);
+            from565(c1, palette, 3);
+            for( int i = 0; i < 3; i++ ) {
+                palette[6 + i] = (2 * palette[i] + palette[3 + i]) / 3;
+                palette[9 + i] = (palette[i] + 2 * palette[3 + i]) / 3;
+            }
+            for( int i = 0; i < 16; i++ ) {
+                int r = (block[i] >> 16) & 0xff;
+                int g = (block[i] >> 8) & 0xff;
+                int b = block[i] & 0xff;
+                int best = 0;
+                int bestError = Integer.MAX_VALUE;
+                for( int j = 0; j < 4; j++ ) {
+                    int dr = r - palette[j * 3];
+                    int dg = g - palette[j * 3 + 1];
+                    int db = b - palette[j * 3 + 2];
+                    int error = dr * dr + dg * dg + db * db;
+                    if( error < bestError ) {
+                        best = j;
+                        bestError = error;
+                    }
+                }
+                bits |= best << (i * 2);
+            }
+        }
+        writeShort(out, c0);
+        writeShort(out, c1);
+        writeInt(out, bits);
+    }
+
+    private static int to565( int r, int g, int b ) {
+        return ((r * 31 + 127) / 255) << 11 | ((g * 63 + 127) / 255) << 5 | ((b * 31 + 127) / 255);
+    }
+
+    private static void from565( int c, int[] rgb, int offset ) {
+        int r = (c >> 11) & 0x1f;
+        int g = (c >> 5) & 0x3f;
+        int b = c & 0x1f;
+        rgb[offset] = (r << 3) | (r >> 2);
+        rgb[offset + 1] = (g << 2) | (g >> 4);
+        rgb[offset + 2] = (b << 3) | (b >> 2);
+    }
+}
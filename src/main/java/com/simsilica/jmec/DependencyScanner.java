@@ -0,0 +1,374 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+
+import com.jme3.asset.AssetKey;
+
+/**
+ *  Lists the files and materials that a model references by reading
+ *  only the GLTF JSON or the OBJ/MTL text, without loading the model.
+ *  This is much faster than loading the model and calling
+ *  ModelInfo.getDependencies() but it only knows about the model file
+ *  itself, so it can't see dependencies added by model scripts and it can't
+ *  tell which assets will actually be rehomed.
+ *
+ *  <p>Paths are resolved the same way the JME loaders resolve them,
+ *  relative to the model's folder within the source root.  Embedded
+ *  (data: or GLB) buffers and images are not listed.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class DependencyScanner {
+
+    static Logger log = LoggerFactory.getLogger(DependencyScanner.class);
+
+    private static final int GLB_MAGIC = 0x46546C67;
+    private static final int GLB_JSON = 0x4E4F534A;
+
+    public enum Type { Buffer, Image, Material, MaterialLibrary }
+
+    private Path root;
+    private SourceIndex sourceIndex;
+
+    public DependencyScanner( File sourceRoot ) {
+        try {
+            this.root = sourceRoot.getCanonicalFile().toPath();
+        } catch( IOException e ) {
+            throw new RuntimeException("Error getting canonical path for:" + sourceRoot, e);
+        }
+    }
+
+    /**
+     *  Creates a scanner that resolves references through the specified
+     *  index.  Models must be in the index's primary root.
+     */
+    public DependencyScanner( SourceIndex sourceIndex ) {
+        this.sourceIndex = sourceIndex;
+        this.root = sourceIndex.getPrimaryRoot().toPath();
+    }
+
+    public File getSourceRoot() {
+        return root.toFile();
+    }
+
+    /**
+     *  Returns true if the scanner knows how to read the specified model
+     *  file.
+     */
+    public boolean canScan( File model ) {
+        String ext = Files.getFileExtension(model.getName()).toLowerCase();
+        return "gltf".equals(ext) || "glb".equals(ext) || "obj".equals(ext);
+    }
+
+    /**
+     *  Returns the references of the specified model or throws
+     *  IllegalArgumentException if the model is not a type that can be
+     *  scanned.
+     */
+    public Result scan( File model ) throws IOException {
+        if( !canScan(model) ) {
+            throw new IllegalArgumentException("Unsupported model type:" + model);
+        }
+        model = model.getCanonicalFile();
+        String name = root.relativize(model.toPath()).toString().replace('\\', '/');
+        Result result = new Result(model, new AssetKey<>(name).getFolder());
+        long start = System.nanoTime();
+        String ext = Files.getFileExtension(model.getName()).toLowerCase();
+        switch( ext ) {
+            case "gltf":
+                try( Reader in = Files.newReader(model, Charsets.UTF_8) ) {
+                    scanGltf(new JsonParser().parse(new JsonReader(in)).getAsJsonObject(), result);
+                }
+                break;
+            case "glb":
+                scanGltf(readGlbJson(model), result);
+                break;
+            case "obj":
+                scanObj(model, result);
+                break;
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    protected JsonObject readGlbJson( File model ) throws IOException {
+        try( DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(model))) ) {
+            // Header and first chunk header
+            byte[] header = new byte[20];
+            in.readFully(header);
+            ByteBuffer bb = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+            if( bb.getInt(0) != GLB_MAGIC ) {
+                throw new IOException("Not a GLB file:" + model);
+            }
+            int length = bb.getInt(12);
+            if( bb.getInt(16) != GLB_JSON ) {
+                throw new IOException("First GLB chunk is not JSON:" + model);
+            }
+            byte[] json = new byte[length];
+            in.readFully(json);
+            return new JsonParser().parse(new String(json, Charsets.UTF_8)).getAsJsonObject();
+        }
+    }
+
+    protected void scanGltf( JsonObject root, Result result ) {
+        JsonArray buffers = root.getAsJsonArray("buffers");
+        if( buffers != null ) {
+            for( JsonElement e : buffers ) {
+                String uri = getString(e.getAsJsonObject(), "uri");
+                if( uri != null && !uri.startsWith("data:") ) {
+                    result.add(Type.Buffer, result.folder + uri);
+                }
+            }
+        }
+        JsonArray images = root.getAsJsonArray("images");
+        if( images != null ) {
+            for( JsonElement e : images ) {
+                String uri = getString(e.getAsJsonObject(), "uri");
+                if( uri != null && !uri.startsWith("data:") ) {
+                    result.add(Type.Image, result.folder + uri);
+                }
+            }
+        }
+        JsonArray materials = root.getAsJsonArray("materials");
+        if( materials != null ) {
+            for( int i = 0; i < materials.size(); i++ ) {
+                String name = getString(materials.get(i).getAsJsonObject(), "name");
+                result.add(Type.Material, name != null ? name : ("material" + i));
+            }
+        }
+    }
+
+    /**
+     *  Reads the mtllib and usemtl lines of the OBJ file and then the
+     *  texture maps of each material library, the same way JME's
+     *  OBJLoader and MTLLoader find them.  The rest of the OBJ file is
+     *  skipped without being parsed.
+     */
+    protected void scanObj( File model, Result result ) throws IOException {
+        Set<String> materials = new LinkedHashSet<>();
+        try( BufferedReader in = Files.newReader(model, Charsets.UTF_8) ) {
+            String line;
+            while( (line = in.readLine()) != null ) {
+                if( line.startsWith("mtllib") ) {
+                    String lib = line.substring("mtllib".length()).trim();
+                    if( !lib.isEmpty() ) {
+                        Reference ref = result.add(Type.MaterialLibrary, result.folder + lib);
+                        if( ref.getFile() != null && ref.getFile().isFile() ) {
+                            scanMtl(ref, result);
+                        }
+                    }
+                } else if( line.startsWith("usemtl") ) {
+                    String mat = line.substring("usemtl".length()).trim();
+                    if( !mat.isEmpty() && materials.add(mat) ) {
+                        result.add(Type.Material, mat);
+                    }
+                }
+            }
+        }
+    }
+
+    protected void scanMtl( Reference lib, Result result ) throws IOException {
+        String folder = new AssetKey<>(lib.getName()).getFolder();
+        try( BufferedReader in = Files.newReader(lib.getFile(), Charsets.UTF_8) ) {
+            String line;
+            while( (line = in.readLine()) != null ) {
+                String[] parts = line.trim().split("\\p{javaWhitespace}+");
+                if( parts.length < 2 ) {
+                    continue;
+                }
+                switch( parts[0].toLowerCase() ) {
+                    case "map_kd":
+                    case "map_ks":
+                    case "map_d":
+                    case "map_bump":
+                    case "bump":
+                        // MTLLoader only uses the file name of the last token
+                        String path = parts[parts.length - 1];
+                        result.add(Type.Image, folder + new File(path).getName());
+                        break;
+                }
+            }
+        }
+    }
+
+    protected File findFile( String name ) {
+        File result = sourceIndex == null ? null : sourceIndex.findFile(name);
+        if( result == null ) {
+            // May not exist
+            result = new File(root.toFile(), name);
+        }
+        return result;
+    }
+
+    private static String getString( JsonObject json, String name ) {
+        JsonElement e = json.get(name);
+        return e == null || e.isJsonNull() ? null : e.getAsString();
+    }
+
+    /**
+     *  The references found in a single model.
+     */
+    public class Result {
+        private final File model;
+        private final String folder;
+        private final Map<String, Reference> refs = new LinkedHashMap<>();
+        private long nanos;
+
+        protected Result( File model, String folder ) {
+            this.model = model;
+            this.folder = folder;
+        }
+
+        protected Reference add( Type type, String name ) {
+            if( type != Type.Material ) {
+                name = new AssetKey<>(name).getName();
+            }
+            String key = type + ":" + name;
+            Reference result = refs.get(key);
+            if( result == null ) {
+                File file = type == Type.Material ? null : findFile(name);
+                result = new Reference(type, name, file);
+                refs.put(key, result);
+            }
+            return result;
+        }
+
+        public File getModel() {
+            return model;
+        }
+
+        public List<Reference> getReferences() {
+            return new ArrayList<>(refs.values());
+        }
+
+        public List<Reference> getReferences( Type type ) {
+            List<Reference> result = new ArrayList<>();
+            for( Reference ref : refs.values() ) {
+                if( ref.getType() == type ) {
+                    result.add(ref);
+                }
+            }
+            return result;
+        }
+
+        /**
+         *  Returns the model file and all of the referenced files that exist.
+         */
+        public Set<File> getFiles() {
+            Set<File> result = new LinkedHashSet<>();
+            result.add(model);
+            for( Reference ref : refs.values() ) {
+                if( ref.exists() ) {
+                    result.add(ref.getFile());
+                }
+            }
+            return result;
+        }
+
+        /**
+         *  Returns the references to files that do not exist.
+         */
+        public List<Reference> getMissing() {
+            List<Reference> result = new ArrayList<>();
+            for( Reference ref : refs.values() ) {
+                if( ref.getFile() != null && !ref.exists() ) {
+                    result.add(ref);
+                }
+            }
+            return result;
+        }
+
+        public double getScanMillis() {
+            return nanos / 1000000.0;
+        }
+    }
+
+    /**
+     *  A single file or material referenced by a model.  Materials have
+     *  a name but no file.
+     */
+    public static class Reference {
+        private final Type type;
+        private final String name;
+        private final File file;
+
+        public Reference( Type type, String name, File file ) {
+            this.type = type;
+            this.name = name;
+            this.file = file;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         *  Returns the asset name relative to the source root or the
+         *  material name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public boolean exists() {
+            return file != null && file.isFile();
+        }
+
+        @Override
+        public String toString() {
+            return type + "[" + name + "]";
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.lang.management.*;
+import java.lang.reflect.*;
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.*;
+
+import com.jme3.util.BufferUtils;
+
+/**
+ *  Utility methods for explicitly freeing direct buffers instead of
+ *  waiting for the garbage collector to find them.  Freed buffers must
+ *  never be accessed again.
+ *
+ *  <p>On Java 9+ this uses sun.misc.Unsafe.invokeCleaner() because JME's
+ *  BufferUtils.destroyDirectBuffer() can no longer reach the buffer
+ *  internals without extra command line flags.  On older JVMs it falls back
+ *  to BufferUtils.  If the owning ByteBuffer of a view cannot be found
+ *  because the JVM's buffer internals are different than expected then
+ *  the buffer is not freed at all and is left to the garbage collector.</p>
+ *
+ *  @author    Paul Speed
+ */
+public final class DirectBuffers {
+
+    static Logger log = LoggerFactory.getLogger(DirectBuffers.class);
+
+    private static final Object unsafe;
+    private static final Method invokeCleaner;
+    private static final Method objectFieldOffset;
+    private static final Method getObject;
+    private static final ConcurrentMap<Class<?>, Long> attachmentOffsets = new ConcurrentHashMap<>();
+    private static final Object NO_ATTACHMENT = new Object();
+
+    static {
+        Object u = null;
+        Method[] methods = new Method[3];
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field f = type.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            u = f.get(null);
+            methods[0] = type.getMethod("invokeCleaner", ByteBuffer.class);
+            methods[1] = type.getMethod("objectFieldOffset", Field.class);
+            methods[2] = type.getMethod("getObject", Object.class, long.class);
+        } catch( Exception e ) {
+            log.debug("Unsafe.invokeCleaner() not available, using BufferUtils", e);
+            u = null;
+            methods = new Method[3];
+        }
+        unsafe = u;
+        invokeCleaner = methods[0];
+        objectFieldOffset = methods[1];
+        getObject = methods[2];
+    }
+
+    private DirectBuffers() {
+    }
+
+    /**
+     *  Frees the specified buffer if it is direct and hasn't already been freed
+     *  through this call, recording the underlying ByteBuffer in 'freed'.
+     *  Returns the number of bytes freed.
+     */
+    public static long free( Buffer buffer, Set<Object> freed ) {
+        if( buffer == null || !buffer.isDirect() ) {
+            return 0;
+        }
+        Object root = getRoot(buffer);
+        if( root == null ) {
+            log.debug("Unable to find the owner of buffer, leaving it for GC:" + buffer);
+            return 0;
+        }
+        if( !freed.add(root) ) {
+            return 0;
+        }
+        long size = root instanceof Buffer ? sizeOf((Buffer)root) : sizeOf(buffer);
+        try {
+            if( invokeCleaner != null && root instanceof ByteBuffer ) {
+                invokeCleaner.invoke(unsafe, root);
+            } else {
+                BufferUtils.destroyDirectBuffer(buffer);
+            }
+            return size;
+        } catch( InvocationTargetException | IllegalAccessException e ) {
+            log.warn("Unable to free buffer:" + buffer, e);
+            return 0;
+        }
+    }
+
+    /**
+     *  Returns the size of the buffer's contents in bytes.
+     */
+    public static long sizeOf( Buffer buffer ) {
+        long size = buffer.capacity();
+        if( buffer instanceof ShortBuffer || buffer instanceof CharBuffer ) {
+            return size * 2;
+        } else if( buffer instanceof IntBuffer || buffer instanceof FloatBuffer ) {
+            return size * 4;
+        } else if( buffer instanceof LongBuffer || buffer instanceof DoubleBuffer ) {
+            return size * 8;
+        }
+        return size;
+    }
+
+    /**
+     *  Returns the number of bytes of direct memory currently allocated by
+     *  the JVM or -1 if it cannot be determined.
+     */
+    public static long getDirectMemoryUsed() {
+        for( BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class) ) {
+            if( "direct".equals(pool.getName()) ) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     *  Returns the buffer that owns the memory, ie: the ByteBuffer that
+     *  a FloatBuffer view was created from.  Direct buffer views keep their
+     *  parent in a field called 'att' that is read here with Unsafe since
+     *  java.nio is not open to reflection.  Returns null if the field can't
+     *  be read, in which case the buffer must not be freed.
+     */
+    private static Object getRoot( Buffer buffer ) {
+        if( unsafe == null ) {
+            return buffer;
+        }
+        Object current = buffer;
+        for( int i = 0; i < 8; i++ ) {
+            long offset = getAttachmentOffset(current.getClass());
+            if( offset < 0 ) {
+                // Different internals than we expect
+                return null;
+            }
+            Object att = getAttachment(current, offset);
+            if( att == null ) {
+                return current;
+            }
+            if( att == NO_ATTACHMENT ) {
+                return null;
+            }
+            current = att;
+        }
+        return null;
+    }
+
+    private static Object getAttachment( Object buffer, long offset ) {
+        try {
+            return getObject.invoke(unsafe, buffer, offset);
+        } catch( ReflectiveOperationException | RuntimeException e ) {
+            log.debug("Unable to get attachment for:" + buffer, e);
+            return NO_ATTACHMENT;
+        }
+    }
+
+    private static long getAttachmentOffset( Class<?> bufferType ) {
+        Long result = attachmentOffsets.get(bufferType);
+        if( result != null ) {
+            return result;
+        }
+        result = -1L;
+        for( Class<?> type = bufferType; type != null && type != Buffer.class; type = type.getSuperclass() ) {
+            try {
+                Field f = type.getDeclaredField("att");
+                result = (Long)objectFieldOffset.invoke(unsafe, f);
+                break;
+            } catch( NoSuchFieldException e ) {
+                // Check the super class
+            } catch( ReflectiveOperationException | RuntimeException e ) {
+                log.debug("Unable to get the attachment offset for:" + bufferType, e);
+                break;
+            }
+        }
+        attachmentOffsets.put(bufferType, result);
+        return result;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+
+import com.jme3.asset.*;
+import com.jme3.asset.plugins.FileLocator;
+
+/**
+ *  A FileLocator that returns AssetInfo objects that know which file
+ *  they came from so that loaders can memory map them instead of
+ *  reading them through a stream.
+ *
+ *  @author    Paul Speed
+ */
+public class FileAssetLocator extends FileLocator {
+
+    private File root;
+
+    @Override
+    public void setRootPath( String rootPath ) {
+        super.setRootPath(rootPath);
+        try {
+            this.root = new File(rootPath).getCanonicalFile();
+        } catch( IOException e ) {
+            throw new AssetLoadException("Root path is invalid", e);
+        }
+    }
+
+    @Override
+    public AssetInfo locate( AssetManager manager, AssetKey key ) {
+        AssetInfo info = super.locate(manager, key);
+        if( info == null ) {
+            return null;
+        }
+        return new FileAssetInfo(manager, key, new File(root, key.getName()), info);
+    }
+
+    /**
+     *  AssetInfo for an asset that is a regular file.
+     */
+    public static class FileAssetInfo extends AssetInfo {
+        private final File file;
+        private final AssetInfo delegate;
+
+        public FileAssetInfo( AssetManager manager, AssetKey key, File file ) {
+            this(manager, key, file, null);
+        }
+
+        public FileAssetInfo( AssetManager manager, AssetKey key, File file, AssetInfo delegate ) {
+            super(manager, key);
+            this.file = file;
+            this.delegate = delegate;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        @Override
+        public InputStream openStream() {
+            if( delegate != null ) {
+                return delegate.openStream();
+            }
+            try {
+                return new FileInputStream(file);
+            } catch( FileNotFoundException e ) {
+                throw new AssetLoadException("Failed to open file:" + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+/**
+ *  Copies dependency files into the target tree, skipping files that are
+ *  already up to date and optionally hard linking or reflinking files
+ *  instead of copying their contents.  Files are always written to a
+ *  temporary file next to the target first and then moved into place
+ *  so that nobody ever sees a partially written target.
+ *
+ *  <p>A FileCopier has no per-copy state and can be shared by any number
+ *  of threads.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class FileCopier {
+
+    static Logger log = LoggerFactory.getLogger(FileCopier.class);
+
+    /**
+     *  How the target file is created from the source file.
+     */
+    public enum Mode {
+        /** Copies the contents of the file. */
+        COPY,
+        /**
+         *  Creates a hard link to the source file.  This takes no extra disk
+         *  space but note that modifying either file modifies both.  Falls
+         *  back to copying if the source and target are on different file
+         *  systems or the file system does not support hard links.
+         */
+        HARDLINK,
+        /**
+         *  Creates a copy-on-write clone of the source file using 'cp'
+         *  on file systems that support it (btrfs, xfs, APFS, etc.).
+         *  Falls back to copying when cloning is not supported.
+         */
+        REFLINK
+    }
+
+    /**
+     *  How an existing target file is checked against the source to see
+     *  if it needs to be copied again.
+     */
+    public enum Check {
+        /** Always copies. */
+        NONE,
+        /** Skips the copy if the target has the same size and last modified time. */
+        TIMESTAMP,
+        /** Skips the copy if the target has the same size and SHA-1 hash. */
+        HASH
+    }
+
+    private static final boolean MAC = System.getProperty("os.name", "").toLowerCase().startsWith("mac");
+
+    private Mode mode = Mode.COPY;
+    private Check check = Check.TIMESTAMP;
+    private volatile boolean linkFailed;
+    private volatile boolean reflinkFailed;
+
+    public FileCopier() {
+    }
+
+    public FileCopier( Mode mode, Check check ) {
+        this.mode = mode;
+        this.check = check;
+    }
+
+    public void setMode( Mode mode ) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setCheck( Check check ) {
+        this.check = check;
+    }
+
+    public Check getCheck() {
+        return check;
+    }
+
+    /**
+     *  Returns true if the target already exists and matches the source
+     *  according to the current check.
+     */
+    public boolean isUpToDate( File source, File target ) throws IOException {
+        if( check == Check.NONE || !target.exists() ) {
+            return false;
+        }
+        if( java.nio.file.Files.isSameFile(source.toPath(), target.toPath()) ) {
+            // Already hard linked
+            return true;
+        }
+        if( source.length() != target.length() ) {
+            return false;
+        }
+        switch( check ) {
+            case TIMESTAMP:
+                return source.lastModified() == target.lastModified();
+            case HASH:
+                return Files.hash(source, Hashing.sha1()).equals(Files.hash(target, Hashing.sha1()));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     *  Copies, links, or clones the source file to the target file unless
+     *  the target is already up to date.  Returns false if the target
+     *  was up to date.
+     */
+    public boolean copy( File source, File target ) throws IOException {
+        if( isUpToDate(source, target) ) {
+            log.info("Up to date:" + target);
+            return false;
+        }
+        File temp = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+        try {
+            if( !(mode == Mode.HARDLINK && link(source, temp))
+                && !(mode == Mode.REFLINK && reflink(source, temp)) ) {
+                transfer(source, temp);
+            }
+            // Keep the source timestamp so that the next run can tell
+            // that the target is up to date.  (A no-op for hard links.)
+            temp.setLastModified(source.lastModified());
+            move(temp, target);
+        } finally {
+            if( temp.exists() ) {
+                temp.delete();
+            }
+        }
+        return true;
+    }
+
+    /**
+     *  Copies the contents of the source file to the target file using
+     *  FileChannel.transferTo(), which lets the OS move the data directly
+     *  without copying it through Java buffers where it can.
+     */
+    protected void transfer( File source, File target ) throws IOException {
+        try( FileChannel in = new FileInputStream(source).getChannel();
+             FileChannel out = new FileOutputStream(target).getChannel() ) {
+            long size = in.size();
+            long pos = 0;
+            while( pos < size ) {
+                pos += in.transferTo(pos, size - pos, out);
+            }
+        }
+    }
+
+    protected boolean link( File source, File temp ) throws IOException {
+        if( linkFailed ) {
+            return false;
+        }
+        // createLink() wants to create the file itself
+        temp.delete();
+        try {
+            java.nio.file.Files.createLink(temp.toPath(), source.toPath());
+            return true;
+        } catch( IOException | UnsupportedOperationException e ) {
+            log.warn("Unable to hard link:" + source + ", falling back to copying", e);
+            linkFailed = true;
+            return false;
+        }
+    }
+
+    protected boolean reflink( File source, File temp ) throws IOException {
+        if( reflinkFailed ) {
+            return false;
+        }
+        List<String> cmd = new ArrayList<>();
+        cmd.add("cp");
+        cmd.add(MAC ? "-c" : "--reflink=always");
+        cmd.add(source.getAbsolutePath());
+        cmd.add(temp.getAbsolutePath());
+        try {
+            Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+            String output = new String(ByteStreams.toByteArray(p.getInputStream()), Charsets.UTF_8);
+            if( p.waitFor() == 0 ) {
+                return true;
+            }
+            log.warn("Unable to reflink:" + source + ", falling back to copying:" + output.trim());
+        } catch( IOException e ) {
+            log.warn("Unable to reflink:" + source + ", falling back to copying", e);
+        } catch( InterruptedException e ) {
+            throw new InterruptedIOException("Interrupted cloning:" + source);
+        }
+        reflinkFailed = true;
+        return false;
+    }
+
+    protected void move( File temp, File target ) throws IOException {
+        try {
+            java.nio.file.Files.move(temp.toPath(), target.toPath(),
+                                     StandardCopyOption.REPLACE_EXISTING,
+                                     StandardCopyOption.ATOMIC_MOVE);
+        } catch( AtomicMoveNotSupportedException e ) {
+            java.nio.file.Files.move(temp.toPath(), target.toPath(),
+                                     StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.MapMaker;
+
+import com.jme3.asset.*;
+
+/**
+ *  An AssetLocator that finds files through a SourceIndex.  Because JME
+ *  creates locators from their class and a root path string, the index
+ *  must first be registered to get the 'root path' to use when registering
+ *  the locator.
+ *
+ *  <pre>
+ *  assetManager.registerLocator(IndexedLocator.register(index), IndexedLocator.class);
+ *  </pre>
+ *
+ *  @author    Paul Speed
+ */
+public class IndexedLocator implements AssetLocator {
+
+    private static final String PREFIX = "jmec-index:";
+    private static final AtomicInteger nextId = new AtomicInteger();
+    private static final ConcurrentMap<String, SourceIndex> indexes
+            = new MapMaker().weakValues().makeMap();
+
+    private SourceIndex index;
+
+    /**
+     *  Returns the root path string that will make an IndexedLocator
+     *  use the specified index.  Registering the same index again
+     *  returns a new id.
+     */
+    public static String register( SourceIndex index ) {
+        String id = PREFIX + nextId.incrementAndGet();
+        indexes.put(id, index);
+        return id;
+    }
+
+    @Override
+    public void setRootPath( String rootPath ) {
+        this.index = indexes.get(rootPath);
+        if( index == null ) {
+            throw new IllegalArgumentException("No registered SourceIndex for:" + rootPath);
+        }
+    }
+
+    public SourceIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public AssetInfo locate( AssetManager manager, AssetKey key ) {
+        File file = index.findFile(key.getName());
+        if( file == null ) {
+            return null;
+        }
+        return new FileAssetLocator.FileAssetInfo(manager, key, file);
+    }
+}
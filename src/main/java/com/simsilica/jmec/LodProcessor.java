@@ -0,0 +1,311 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.nio.Buffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.*;
+
+import com.jme3.scene.*;
+
+import jme3tools.optimize.LodGenerator;
+import jme3tools.optimize.LodGenerator.TriangleReductionMethod;
+
+/**
+ *  A model processor that generates LOD levels for the meshes in a model
+ *  using jME's LodGenerator so that they are saved in the j3o instead of
+ *  being generated when the model is loaded.  A LodControl is still needed
+ *  at runtime to switch between them.
+ *
+ *  <p>Only indexed triangle meshes that don't already have LOD levels and
+ *  have at least the minimum number of triangles get LOD levels.  Because
+ *  LodGenerator's setup time grows with the square of the vertex count,
+ *  meshes with more than the maximum number of vertexes are skipped.</p>
+ *
+ *  <p>With an executor, meshes are simplified in parallel.  Meshes that
+ *  share position data are always done one after the other on the same
+ *  thread.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class LodProcessor implements ModelProcessor {
+
+    static Logger log = LoggerFactory.getLogger(LodProcessor.class);
+
+    private TriangleReductionMethod method = TriangleReductionMethod.PROPORTIONAL;
+    private float[] reductionValues = { 0.25f, 0.5f, 0.75f };
+    private int minTriangles = 100;
+    private int maxVertexes = 65536;
+    private Executor executor;
+
+    public LodProcessor() {
+    }
+
+    public LodProcessor( Executor executor ) {
+        this.executor = executor;
+    }
+
+    /**
+     *  Creates a fixed size pool of daemon threads suitable for passing to
+     *  setExecutor().
+     */
+    public static ExecutorService createExecutor( int threadCount ) {
+        final AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+                @Override
+                public Thread newThread( Runnable r ) {
+                    Thread t = new Thread(r, "jmec-lod-" + count.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+    }
+
+    /**
+     *  Sets the executor that simplifies meshes in parallel.  Defaults to
+     *  null, which simplifies them one at a time on the calling thread.
+     */
+    public void setExecutor( Executor executor ) {
+        this.executor = executor;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     *  Sets how the reduction values are interpreted.  Defaults to
+     *  PROPORTIONAL, ie: the fraction of triangles to remove for each level.
+     */
+    public void setMethod( TriangleReductionMethod method ) {
+        this.method = method;
+    }
+
+    public TriangleReductionMethod getMethod() {
+        return method;
+    }
+
+    /**
+     *  Sets the reduction value of each LOD level after level 0, which is the
+     *  full mesh.  Defaults to 0.25, 0.5, 0.75.
+     */
+    public void setReductionValues( float... reductionValues ) {
+        if( reductionValues.length == 0 ) {
+            throw new IllegalArgumentException("At least one reduction value is required");
+        }
+        this.reductionValues = reductionValues.clone();
+    }
+
+    public float[] getReductionValues() {
+        return reductionValues.clone();
+    }
+
+    /**
+     *  Sets the number of triangles below which meshes are left alone.
+     *  Defaults to 100.
+     */
+    public void setMinTriangles( int minTriangles ) {
+        this.minTriangles = minTriangles;
+    }
+
+    public int getMinTriangles() {
+        return minTriangles;
+    }
+
+    /**
+     *  Sets the number of vertexes above which meshes are left alone or 0
+     *  for no limit.  Defaults to 65536.
+     */
+    public void setMaxVertexes( int maxVertexes ) {
+        this.maxVertexes = maxVertexes;
+    }
+
+    public int getMaxVertexes() {
+        return maxVertexes;
+    }
+
+    @Override
+    public void apply( ModelInfo info ) {
+        long start = System.nanoTime();
+        int count = generateLods(info.getModelRoot());
+        if( count > 0 ) {
+            log.info(String.format("Generated LODs for %d mesh(es) of %s in %.1f ms", count, info.getModelName(),
+                                   (System.nanoTime() - start) / 1000000.0));
+        }
+    }
+
+    /**
+     *  Generates LOD levels for the eligible meshes in the specified spatial
+     *  and returns the number of meshes that were given LOD levels.
+     */
+    public int generateLods( Spatial spatial ) {
+        final Map<Mesh, String> meshes = new IdentityHashMap<>();
+        final List<Mesh> order = new ArrayList<>();
+        spatial.depthFirstTraversal(new SceneGraphVisitorAdapter() {
+                @Override
+                public void visit( Geometry geom ) {
+                    Mesh mesh = geom.getMesh();
+                    if( mesh != null && !meshes.containsKey(mesh) && isEligible(mesh) ) {
+                        meshes.put(mesh, geom.getName());
+                        order.add(mesh);
+                    }
+                }
+            });
+
+        // Group the meshes by position data because LodGenerator moves
+        // the position of the buffer while reading it
+        Map<Buffer, List<Mesh>> groups = new IdentityHashMap<>();
+        List<List<Mesh>> groupOrder = new ArrayList<>();
+        for( Mesh mesh : order ) {
+            Buffer data = getPositions(mesh).getData();
+            List<Mesh> group = groups.get(data);
+            if( group == null ) {
+                group = new ArrayList<>();
+                groups.put(data, group);
+                groupOrder.add(group);
+            }
+            group.add(mesh);
+        }
+
+        List<Future<List<VertexBuffer[]>>> tasks = new ArrayList<>();
+        for( final List<Mesh> group : groupOrder ) {
+            FutureTask<List<VertexBuffer[]>> task = new FutureTask<>(new Callable<List<VertexBuffer[]>>() {
+                    @Override
+                    public List<VertexBuffer[]> call() {
+                        List<VertexBuffer[]> result = new ArrayList<>();
+                        for( Mesh mesh : group ) {
+                            result.add(computeLods(mesh, meshes.get(mesh)));
+                        }
+                        return result;
+                    }
+                });
+            if( executor == null ) {
+                task.run();
+            } else {
+                executor.execute(task);
+            }
+            tasks.add(task);
+        }
+
+        // Only set the LOD levels once they are all done so that the model
+        // is never modified while other threads are reading it
+        List<List<VertexBuffer[]>> results = new ArrayList<>();
+        RuntimeException error = null;
+        for( Future<List<VertexBuffer[]>> task : tasks ) {
+            try {
+                results.add(task.get());
+            } catch( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted generating LODs", e);
+            } catch( ExecutionException e ) {
+                if( error == null ) {
+                    error = new RuntimeException("Error generating LODs", e.getCause());
+                }
+            }
+        }
+        if( error != null ) {
+            throw error;
+        }
+
+        int count = 0;
+        for( int i = 0; i < groupOrder.size(); i++ ) {
+            List<Mesh> group = groupOrder.get(i);
+            List<VertexBuffer[]> lods = results.get(i);
+            for( int j = 0; j < group.size(); j++ ) {
+                // LodGenerator skips levels that would not remove anything
+                if( lods.get(j).length > 1 ) {
+                    group.get(j).setLodLevels(lods.get(j));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    protected boolean isEligible( Mesh mesh ) {
+        if( mesh.getMode() != Mesh.Mode.Triangles || mesh.getNumLodLevels() > 0 ) {
+            return false;
+        }
+        VertexBuffer index = mesh.getBuffer(VertexBuffer.Type.Index);
+        if( index == null || index.getData() == null ) {
+            return false;
+        }
+        // LodGenerator only reads int and short indexes
+        if( index.getFormat() != VertexBuffer.Format.UnsignedInt
+            && index.getFormat() != VertexBuffer.Format.UnsignedShort ) {
+            return false;
+        }
+        VertexBuffer pos = getPositions(mesh);
+        if( pos == null || pos.getData() == null || pos.getFormat() != VertexBuffer.Format.Float ) {
+            return false;
+        }
+        if( mesh.getTriangleCount() < minTriangles ) {
+            return false;
+        }
+        return maxVertexes <= 0 || mesh.getVertexCount() <= maxVertexes;
+    }
+
+    private static VertexBuffer getPositions( Mesh mesh ) {
+        // LodGenerator prefers the bind pose when there is one
+        VertexBuffer result = mesh.getBuffer(VertexBuffer.Type.BindPosePosition);
+        return result != null ? result : mesh.getBuffer(VertexBuffer.Type.Position);
+    }
+
+    protected VertexBuffer[] computeLods( Mesh mesh, String name ) {
+        long start = System.nanoTime();
+        VertexBuffer[] result = new LodGenerator(mesh).computeLods(method, reductionValues);
+        if( log.isDebugEnabled() ) {
+            StringBuilder sb = new StringBuilder();
+            for( VertexBuffer vb : result ) {
+                sb.append(sb.length() == 0 ? "" : ", ").append(vb.getNumElements());
+            }
+            log.debug(String.format("  %s: triangles [%s] in %.1f ms", name, sb,
+                                    (System.nanoTime() - start) / 1000000.0));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[method=" + method + ", reductionValues=" + Arrays.toString(reductionValues)
+                + ", minTriangles=" + minTriangles + ", maxVertexes=" + maxVertexes + "]";
+    }
+}
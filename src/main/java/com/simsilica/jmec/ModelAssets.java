@@ -98,6 +98,25 @@ public class ModelAssets {
         return addDependency(assets.loadTexture(new TextureKey(name, yFlipped)));
     }
 
+    /**
+     *  Returns true if the specified texture is a placeholder without any
+     *  image data.  See AssetReader.setPlaceholderTextures().
+     */
+    public boolean isPlaceholder( Texture texture ) {
+        return AssetReader.isPlaceholder(texture);
+    }
+
+    /**
+     *  Returns a fully loaded copy of the specified texture if it is a
+     *  placeholder or the texture itself if it is not.
+     */
+    public Texture loadRealTexture( Texture texture ) {
+        if( !isPlaceholder(texture) ) {
+            return texture;
+        }
+        return loadTexture((TextureKey)texture.getKey());
+    }
+
     public AudioData loadAudio( AudioKey key ) {
         return addDependency(assets.loadAudio(key));
     }
@@ -37,6 +37,7 @@
 package com.simsilica.jmec;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 import org.slf4j.*;
@@ -45,6 +46,7 @@ import com.jme3.asset.*;
 import com.jme3.material.*;
 import com.jme3.math.Transform;
 import com.jme3.scene.*;
+import com.jme3.texture.*;
 
 /**
  *  Inspected meta-data about a loaded model asset.
@@ -56,15 +58,36 @@ public class ModelInfo {
     static Logger log = LoggerFactory.getLogger(ModelInfo.class);
 
     private File root;
+    private SourceIndex sourceIndex;
     private String name;
     private Spatial model;
+    private File sourceFile;
+    private Set<File> loadedFiles = Collections.emptySet();
+    private ConvertReport.ModelReport report;
     private Set<AssetKey> sharedAssets = new HashSet<>();
     private Map<CloneableSmartAsset, Dependency> dependencies = new HashMap<>();
+    private Set<VertexBuffer> ownedBuffers = Collections.emptySet();
+    private Set<Image> ownedImages = Collections.emptySet();
 
     public ModelInfo( File root, String name, Spatial model ) {
+        this(root, null, name, model);
+    }
+
+    /**
+     *  Creates a ModelInfo whose dependencies are found through the
+     *  specified source index, ie: when some assets come from other
+     *  source roots than the model.
+     */
+    public ModelInfo( SourceIndex sourceIndex, String name, Spatial model ) {
+        this(sourceIndex.getPrimaryRoot(), sourceIndex, name, model);
+    }
+
+    private ModelInfo( File root, SourceIndex sourceIndex, String name, Spatial model ) {
         this.root = root;
+        this.sourceIndex = sourceIndex;
         this.name = name;
         this.model = model;
+        this.report = new ConvertReport.ModelReport(name);
         findDependencies(model);
     }
 
@@ -146,6 +169,102 @@ public class ModelInfo {
         return model;
     }
 
+    /**
+     *  Sets the model file this info was loaded from and the files that were
+     *  read from the asset root while loading it.
+     */
+    public void setSourceFiles( File sourceFile, Collection<File> loadedFiles ) {
+        this.sourceFile = sourceFile;
+        this.loadedFiles = Collections.unmodifiableSet(new LinkedHashSet<>(loadedFiles));
+    }
+
+    /**
+     *  Returns the timing information collected while converting this model.
+     */
+    public ConvertReport.ModelReport getReport() {
+        return report;
+    }
+
+    /**
+     *  Returns the model file this info was loaded from or null if unknown.
+     */
+    public File getSourceFile() {
+        return sourceFile;
+    }
+
+    /**
+     *  Returns the files that were read from the asset root while loading
+     *  the model.  See AssetReader.getLoadedFiles().
+     */
+    public Set<File> getLoadedFiles() {
+        return loadedFiles;
+    }
+
+    /**
+     *  Records the vertex buffers and images currently in the model as
+     *  belonging only to this model so that they can be freed later with
+     *  releaseBuffers().  This should be called right after loading since
+     *  anything added later (ie: by scripts loading other assets) may be
+     *  shared with the asset manager's cache.  Images shared through a
+     *  TextureCache and placeholder images are never included.
+     */
+    public void captureBuffers() {
+        final Set<VertexBuffer> buffers = Collections.newSetFromMap(new IdentityHashMap<VertexBuffer, Boolean>());
+        final Set<Image> images = Collections.newSetFromMap(new IdentityHashMap<Image, Boolean>());
+        model.depthFirstTraversal(new SceneGraphVisitorAdapter() {
+                @Override
+                public void visit( Geometry geom ) {
+                    Mesh mesh = geom.getMesh();
+                    if( mesh != null ) {
+                        buffers.addAll(mesh.getBufferList());
+                        for( int i = 0; i < mesh.getNumLodLevels(); i++ ) {
+                            buffers.add(mesh.getLodLevel(i));
+                        }
+                    }
+                    Material m = geom.getMaterial();
+                    if( m == null ) {
+                        return;
+                    }
+                    for( MatParam mp : m.getParams() ) {
+                        if( !(mp.getValue() instanceof Texture) ) {
+                            continue;
+                        }
+                        Image image = ((Texture)mp.getValue()).getImage();
+                        if( image != null && !TextureCache.isShared(image)
+                            && !AssetReader.isPlaceholder((Texture)mp.getValue()) ) {
+                            images.add(image);
+                        }
+                    }
+                }
+            });
+        this.ownedBuffers = buffers;
+        this.ownedImages = images;
+    }
+
+    /**
+     *  Frees the direct memory of the buffers and images recorded by
+     *  captureBuffers() and returns the number of bytes freed.  The freed
+     *  buffers are removed from their vertex buffers and images but the
+     *  model should not be used for anything after this.
+     */
+    public long releaseBuffers() {
+        Set<Object> freed = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        long total = 0;
+        for( VertexBuffer vb : ownedBuffers ) {
+            total += DirectBuffers.free(vb.getData(), freed);
+            vb.updateData(null);
+        }
+        for( Image image : ownedImages ) {
+            for( ByteBuffer data : image.getData() ) {
+                total += DirectBuffers.free(data, freed);
+            }
+            image.setData(new ArrayList<ByteBuffer>());
+        }
+        ownedBuffers = Collections.emptySet();
+        ownedImages = Collections.emptySet();
+        return total;
+    }
+
     public void setModelName( String name ) {
         this.name = name;
     }
@@ -171,6 +290,18 @@ public class ModelInfo {
         dep.setKey(new MaterialKey(assetName));
     }
 
+    /**
+     *  Generates LOD levels for the meshes under the specified spatial,
+     *  removing the specified proportion of triangles for each level,
+     *  ie: generateLods(tree, 0.5, 0.75).  Returns the number of meshes
+     *  that were given LOD levels.  See LodProcessor.
+     */
+    public int generateLods( Spatial spatial, float... reductionValues ) {
+        LodProcessor lod = new LodProcessor();
+        lod.setReductionValues(reductionValues);
+        return lod.generateLods(spatial);
+    }
+
     /**
      *  Extracts the specified model as a separate dependency and replaces
      *  it with an AssetLinkNode.  The model will be saved to the target path
@@ -266,7 +397,7 @@ public class ModelInfo {
     private void findDependencies( Material m ) {
         log.debug("findDependencies(" + m + ")");
         if( m.getKey() != null ) {
-            dependencies.put(m, new Dependency(root, m));
+            dependencies.put(m, new Dependency(m, findSourceFile(root, m.getKey())));
         }
         for( MatParam mp : m.getParams() ) {
             log.debug("Checking:" + mp);
@@ -334,7 +465,7 @@ public class ModelInfo {
         }
         Dependency result = dependencies.get(asset);
         if( result == null ) {
-            result = new Dependency(root, asset);
+            result = new Dependency(asset, findSourceFile(root, asset.getKey()));
             dependencies.put(asset, result);
             return result;
         }
@@ -344,17 +475,36 @@ public class ModelInfo {
         return result;
     }
 
+    /**
+     *  Returns the real file for the asset key, looking it up in the source
+     *  index for keys relative to the model's own root.
+     */
+    private File findSourceFile( File root, AssetKey key ) {
+        if( key == null ) {
+            return null;
+        }
+        if( sourceIndex != null && root == this.root ) {
+            File f = sourceIndex.findFile(key.getName());
+            if( f != null ) {
+                return f;
+            }
+        }
+        return new File(root, key.getName());
+    }
+
     public static class Dependency implements Comparable<Dependency> {
         private AssetKey originalKey;
         private File file;
         private List<CloneableSmartAsset> instances = new ArrayList<>();
 
         public Dependency( File root, CloneableSmartAsset asset ) {
+            this(asset, asset.getKey() == null ? null : new File(root, asset.getKey().getName()));
+        }
+
+        public Dependency( CloneableSmartAsset asset, File file ) {
             instances.add(asset);
             this.originalKey = asset.getKey();
-            if( asset.getKey() != null ) {
-                this.file = new File(root, asset.getKey().getName());
-            }
+            this.file = file;
         }
 
         public int compareTo( Dependency other ) {
@@ -0,0 +1,377 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.slf4j.*;
+
+/**
+ *  Finds model files in directory trees or by glob pattern relative to
+ *  a source root.  Scanning happens on a background thread that feeds
+ *  a bounded queue so that callers can start converting the first models
+ *  before the scan is finished and without ever holding the full list of
+ *  files in memory.
+ *
+ *  <p>Directories are listed one at a time and in sorted order so that the
+ *  order of the results is stable from run to run.  Symbolic links to
+ *  directories are not followed.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class ModelScanner {
+
+    static Logger log = LoggerFactory.getLogger(ModelScanner.class);
+
+    public static final String[] DEFAULT_EXTENSIONS = {
+        "gltf", "glb", "obj", "fbx", "blend", "mesh.xml", "scene"
+    };
+
+    private static final File END = new File("");
+
+    private final Path root;
+    private final Set<String> extensions = new LinkedHashSet<>();
+    private final Set<Path> excluded = new HashSet<>();
+    private int queueSize = 256;
+
+    public ModelScanner( File root ) {
+        try {
+            this.root = root.getCanonicalFile().toPath();
+        } catch( IOException e ) {
+            throw new RuntimeException("Error getting canonical path for:" + root, e);
+        }
+        setExtensions(DEFAULT_EXTENSIONS);
+    }
+
+    public File getRoot() {
+        return root.toFile();
+    }
+
+    /**
+     *  Sets the file extensions that are considered models when scanning
+     *  directories.  Glob patterns match whatever they match regardless of
+     *  extension.
+     */
+    public void setExtensions( String... extensions ) {
+        this.extensions.clear();
+        for( String ext : extensions ) {
+            this.extensions.add(ext.toLowerCase());
+        }
+    }
+
+    public Set<String> getExtensions() {
+        return Collections.unmodifiableSet(extensions);
+    }
+
+    /**
+     *  Excludes a directory tree from scanning, for example the target
+     *  root when it is inside of the source root.
+     */
+    public void addExcluded( File dir ) {
+        try {
+            excluded.add(dir.getCanonicalFile().toPath());
+        } catch( IOException e ) {
+            excluded.add(dir.getAbsoluteFile().toPath());
+        }
+    }
+
+    public void setQueueSize( int queueSize ) {
+        this.queueSize = queueSize;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     *  Returns true if the specified input string contains glob characters.
+     */
+    public static boolean isPattern( String input ) {
+        for( char c : input.toCharArray() ) {
+            switch( c ) {
+                case '*':
+                case '?':
+                case '[':
+                case '{':
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     *  Returns true if the specified input is something that scan() would
+     *  expand into multiple files, ie: a directory or a glob pattern.
+     */
+    public boolean isScannable( String input ) {
+        return isPattern(input) || resolveDirectory(input) != null;
+    }
+
+    /**
+     *  Starts scanning for the models matching the input, which can be a directory
+     *  (relative to the current directory or to the source root) or a glob
+     *  pattern relative to the source root.  The returned iterator blocks
+     *  in hasNext() until the next model is found or the scan is finished.
+     */
+    public Iterator<File> scan( String input ) {
+        File dir = resolveDirectory(input);
+        Scan scan;
+        if( dir != null ) {
+            log.info("Scanning directory:" + dir);
+            scan = new Scan(input, dir.toPath(), null);
+        } else if( isPattern(input) ) {
+            log.info("Scanning:" + root + " for:" + input);
+            scan = new Scan(input, root.resolve(getBaseDirectory(input)), createMatcher(input));
+        } else {
+            throw new IllegalArgumentException("Not a directory or pattern:" + input);
+        }
+        scan.start();
+        return scan;
+    }
+
+    /**
+     *  Returns the model name for a file found by scanning the input: its
+     *  path relative to the source root, or relative to the scanned directory
+     *  if it is outside of the source root.  This keeps models with the same
+     *  file name in different directories from writing to the same target.
+     */
+    public String getModelName( String input, File f ) {
+        Path path = f.toPath().toAbsolutePath().normalize();
+        Path base = root.toAbsolutePath().normalize();
+        if( !path.startsWith(base) ) {
+            File dir = resolveDirectory(input);
+            if( dir != null ) {
+                base = dir.toPath().toAbsolutePath().normalize();
+            }
+        }
+        if( !path.startsWith(base) ) {
+            return f.getName();
+        }
+        return base.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     *  Creates a PathMatcher for the glob pattern.  Java's "**&#47;" requires
+     *  at least one directory to match but users generally expect "**&#47;*.gltf"
+     *  to also find the .gltf files at the top of the tree so we match
+     *  those, too.
+     */
+    protected PathMatcher createMatcher( String pattern ) {
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        if( !pattern.startsWith("**/") ) {
+            return matcher;
+        }
+        final PathMatcher top = createMatcher(pattern.substring(3));
+        return new PathMatcher() {
+            @Override
+            public boolean matches( Path path ) {
+                return matcher.matches(path) || top.matches(path);
+            }
+        };
+    }
+
+    protected File resolveDirectory( String input ) {
+        File dir = new File(input);
+        if( dir.isDirectory() ) {
+            return dir;
+        }
+        dir = new File(root.toFile(), input);
+        if( dir.isDirectory() ) {
+            return dir;
+        }
+        return null;
+    }
+
+    /**
+     *  Returns the leading part of the pattern that has no glob characters
+     *  so that we only need to walk that part of the tree.
+     */
+    protected String getBaseDirectory( String pattern ) {
+        StringBuilder sb = new StringBuilder();
+        for( String part : pattern.split("[/\\\\]") ) {
+            if( isPattern(part) ) {
+                break;
+            }
+            if( sb.length() > 0 ) {
+                sb.append("/");
+            }
+            sb.append(part);
+        }
+        // If there were no glob characters at all then the last part
+        // is a file name and not a directory... but then we wouldn't
+        // be here.
+        return sb.toString();
+    }
+
+    protected boolean isModel( Path file ) {
+        String name = file.getFileName().toString().toLowerCase();
+        for( String ext : extensions ) {
+            if( name.endsWith("." + ext) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class Scan implements Iterator<File>, Runnable {
+        private final String input;
+        private final Path start;
+        private final PathMatcher matcher;
+        private final BlockingQueue<File> queue;
+        private volatile Exception error;
+        private File next;
+        private int count;
+
+        public Scan( String input, Path start, PathMatcher matcher ) {
+            this.input = input;
+            this.start = start;
+            this.matcher = matcher;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        }
+
+        public void start() {
+            Thread thread = new Thread(this, "jmec-scanner");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                if( java.nio.file.Files.isDirectory(start) ) {
+                    walk(start);
+                }
+            } catch( InterruptedException e ) {
+                log.warn("Scan interrupted:" + input);
+                return;
+            } catch( Exception e ) {
+                error = e;
+            }
+            try {
+                queue.put(END);
+            } catch( InterruptedException e ) {
+                log.warn("Scan interrupted:" + input);
+            }
+        }
+
+        private void walk( Path dir ) throws IOException, InterruptedException {
+            if( isExcluded(dir) ) {
+                log.debug("Skipping excluded:" + dir);
+                return;
+            }
+            // Each directory's entries are sorted so the listing is held in
+            // memory until the directory is finished, ie: one listing for each
+            // level of the current path.  Files are still handed off as they
+            // are found instead of collecting the whole tree first.
+            List<Path> children = new ArrayList<>();
+            try( DirectoryStream<Path> stream = java.nio.file.Files.newDirectoryStream(dir) ) {
+                for( Path p : stream ) {
+                    children.add(p);
+                }
+            }
+            Collections.sort(children);
+            for( Path p : children ) {
+                if( java.nio.file.Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS) ) {
+                    walk(p);
+                } else if( accept(p) ) {
+                    queue.put(p.toFile());
+                }
+            }
+        }
+
+        private boolean isExcluded( Path dir ) {
+            if( excluded.isEmpty() ) {
+                return false;
+            }
+            // Excluded paths are canonical so compare against the real path
+            try {
+                return excluded.contains(dir.toRealPath());
+            } catch( IOException e ) {
+                return excluded.contains(dir.toAbsolutePath().normalize());
+            }
+        }
+
+        private boolean accept( Path p ) {
+            if( matcher != null ) {
+                return matcher.matches(root.relativize(p.toAbsolutePath()));
+            }
+            return isModel(p);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if( next == null ) {
+                try {
+                    next = queue.take();
+                } catch( InterruptedException e ) {
+                    throw new RuntimeException("Interrupted waiting for scan of:" + input, e);
+                }
+            }
+            if( next == END ) {
+                if( error != null ) {
+                    throw new RuntimeException("Error scanning:" + input, error);
+                }
+                if( count == 0 ) {
+                    log.warn("No models found for:" + input);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public File next() {
+            if( !hasNext() ) {
+                throw new NoSuchElementException();
+            }
+            File result = next;
+            next = null;
+            count++;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -38,6 +38,7 @@ package com.simsilica.jmec;
 
 import java.io.*;
 import java.net.URL;
+import java.util.*;
 import javax.script.*;
 
 import com.google.common.base.Charsets;
@@ -75,10 +76,7 @@ public class ModelScript implements ModelProcessor {
         this.script = script;
         String ext = Files.getFileExtension(scriptName);
         this.engine = scriptEngineManager.getEngineByExtension(ext);
-        this.bindings = engine.createBindings();
-        bindings.put("convert", convert);
-        bindings.put("assets", convert.getAssetReader().getAssetManager());
-        bindings.put("log", LoggerFactory.getLogger("script." + scriptName));
+        resetBindings();
 
         log.info("Script engine:" + engine);
         if( engine instanceof Compilable ) {
@@ -94,6 +92,45 @@ public class ModelScript implements ModelProcessor {
         return scriptName;
     }
 
+    /**
+     *  Returns the text of the script.
+     */
+    public String getScript() {
+        return script;
+    }
+
+    /**
+     *  Creates a new ModelScript for the specified Convert instance that
+     *  runs the same script text with the same custom bindings as this one.
+     *  The standard bindings (convert, assets, log) are setup for the new
+     *  Convert instance.  Bindings are not shared between the two scripts
+     *  so the copy can safely run on a different thread than this one.
+     */
+    public ModelScript copy( Convert convert ) {
+        ModelScript result = new ModelScript(convert, scriptName, script);
+        for( Map.Entry<String, Object> e : bindings.entrySet() ) {
+            if( "model".equals(e.getKey()) || result.bindings.containsKey(e.getKey()) ) {
+                // Keep the standard bindings of the new script
+                continue;
+            }
+            result.bindings.put(e.getKey(), e.getValue());
+        }
+        return result;
+    }
+
+    /**
+     *  Replaces the script's bindings with a fresh set containing only the
+     *  standard bindings (convert, assets, log).  Anything set with setBinding()
+     *  or by previous runs of the script is dropped but the compiled script
+     *  is kept.
+     */
+    public void resetBindings() {
+        this.bindings = engine.createBindings();
+        bindings.put("convert", convert);
+        bindings.put("assets", convert.getAssetReader().getAssetManager());
+        bindings.put("log", LoggerFactory.getLogger("script." + scriptName));
+    }
+
     /**
      *  Sets a variable that will be available to the script.
      */
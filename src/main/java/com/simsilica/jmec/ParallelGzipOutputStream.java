@@ -0,0 +1,229 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+/**
+ *  A GZIP output stream that compresses fixed size blocks of the input
+ *  in parallel on an Executor.  Each block is deflated independently,
+ *  primed with the last 32k of the previous block as a dictionary, and
+ *  flushed to a byte boundary so that the compressed blocks can simply be
+ *  concatenated into one regular GZIP stream (the same approach as pigz).
+ *  The result can be read by GZIPInputStream or any other GZIP reader.
+ *
+ *  <p>With a null executor, blocks are compressed on the writing thread.
+ *  The number of blocks in flight is limited so memory use stays bounded
+ *  no matter how much is written.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final byte[] HEADER = { 0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+    private final OutputStream out;
+    private final int level;
+    private final Executor executor;
+    private final int blockSize;
+    private final int maxPending;
+    private final CRC32 crc = new CRC32();
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private byte[] block;
+    private int count;
+    private byte[] previous;
+    private long size;
+    private boolean closed;
+
+    public ParallelGzipOutputStream( OutputStream out, int level, Executor executor ) throws IOException {
+        this(out, level, executor, DEFAULT_BLOCK_SIZE, 8);
+    }
+
+    public ParallelGzipOutputStream( OutputStream out, int level, Executor executor,
+                                     int blockSize, int maxPending ) throws IOException {
+        if( blockSize < DICTIONARY_SIZE ) {
+            throw new IllegalArgumentException("Block size must be at least " + DICTIONARY_SIZE + ":" + blockSize);
+        }
+        this.out = out;
+        this.level = level;
+        this.executor = executor;
+        this.blockSize = blockSize;
+        this.maxPending = Math.max(1, maxPending);
+        this.block = new byte[blockSize];
+        out.write(HEADER);
+    }
+
+    /**
+     *  Returns the number of uncompressed bytes written so far.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public void write( int b ) throws IOException {
+        write(new byte[] { (byte)b }, 0, 1);
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+        if( closed ) {
+            throw new IOException("Stream closed");
+        }
+        crc.update(b, off, len);
+        size += len;
+        while( len > 0 ) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if( count == blockSize ) {
+                submit(false);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if( closed ) {
+            return;
+        }
+        try {
+            submit(true);
+            while( !pending.isEmpty() ) {
+                writeNext();
+            }
+            writeInt((int)crc.getValue());
+            writeInt((int)size);
+            out.flush();
+        } finally {
+            closed = true;
+            for( Future<byte[]> f : pending ) {
+                f.cancel(true);
+            }
+            out.close();
+        }
+    }
+
+    private void submit( boolean last ) throws IOException {
+        FutureTask<byte[]> task = new FutureTask<>(new BlockCompressor(block, count, previous, level, last));
+        pending.add(task);
+        if( executor == null ) {
+            task.run();
+        } else {
+            executor.execute(task);
+        }
+        previous = block;
+        block = last ? null : new byte[blockSize];
+        count = 0;
+        while( pending.size() >= maxPending || (!pending.isEmpty() && pending.peek().isDone()) ) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        try {
+            out.write(pending.poll().get());
+        } catch( InterruptedException e ) {
+            throw new InterruptedIOException("Interrupted waiting for compression");
+        } catch( ExecutionException e ) {
+            throw new IOException("Error compressing block", e.getCause());
+        }
+    }
+
+    private void writeInt( int i ) throws IOException {
+        out.write(i & 0xff);
+        out.write((i >> 8) & 0xff);
+        out.write((i >> 16) & 0xff);
+        out.write((i >> 24) & 0xff);
+    }
+
+    private static class BlockCompressor implements Callable<byte[]> {
+        private final byte[] data;
+        private final int length;
+        private final byte[] dictionary;
+        private final int level;
+        private final boolean last;
+
+        public BlockCompressor( byte[] data, int length, byte[] dictionary, int level, boolean last ) {
+            this.data = data;
+            this.length = length;
+            this.dictionary = dictionary;
+            this.level = level;
+            this.last = last;
+        }
+
+        @Override
+        public byte[] call() {
+            Deflater deflater = new Deflater(level, true);
+            try {
+                if( dictionary != null ) {
+                    deflater.setDictionary(dictionary, dictionary.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+                }
+                deflater.setInput(data, 0, length);
+                ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(64, length / 2));
+                byte[] buffer = new byte[64 * 1024];
+                if( last ) {
+                    deflater.finish();
+                    while( !deflater.finished() ) {
+                        int n = deflater.deflate(buffer);
+                        result.write(buffer, 0, n);
+                    }
+                } else {
+                    // SYNC_FLUSH ends the block on a byte boundary so the
+                    // next block's output can just be appended
+                    int n;
+                    do {
+                        n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                        result.write(buffer, 0, n);
+                    } while( n == buffer.length );
+                }
+                return result.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+}
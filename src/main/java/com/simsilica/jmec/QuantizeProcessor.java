@@ -0,0 +1,314 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.nio.*;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.jme3.math.FastMath;
+import com.jme3.scene.*;
+import com.jme3.scene.VertexBuffer.Format;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.util.BufferUtils;
+
+/**
+ *  A model processor that rewrites float vertex attributes in smaller
+ *  formats where the precision allows: normalized bytes or shorts for
+ *  values in the -1 to 1 (or 0 to 1) range and half floats otherwise.
+ *  Each attribute type has its own tolerance, the largest absolute error
+ *  allowed in any component, and gets the smallest format that stays
+ *  within it for that particular buffer.
+ *
+ *  <p>By default normals, tangents, binormals, and all of the texture
+ *  coordinates are quantized.  Positions can't be because jME's shaders
+ *  and CPU-side code (bounds, collisions, batching) all expect them to be
+ *  floats.  For the same reason, normals and tangents are left alone on
+ *  skinned and morphed meshes.  This should run after any other processors
+ *  that read or modify mesh data.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class QuantizeProcessor implements ModelProcessor {
+
+    static Logger log = LoggerFactory.getLogger(QuantizeProcessor.class);
+
+    private static final EnumSet<Type> TEXCOORDS = EnumSet.of(Type.TexCoord, Type.TexCoord2, Type.TexCoord3,
+                                                              Type.TexCoord4, Type.TexCoord5, Type.TexCoord6,
+                                                              Type.TexCoord7, Type.TexCoord8);
+
+    private static final EnumSet<Type> SUPPORTED = EnumSet.of(Type.Normal, Type.Tangent, Type.Binormal, Type.Color);
+    static {
+        SUPPORTED.addAll(TEXCOORDS);
+    }
+
+    private static final EnumSet<Type> DIRECTIONS = EnumSet.of(Type.Normal, Type.Tangent, Type.Binormal);
+
+    // Smallest first and normalized formats before half at the same size.
+    // Unsigned formats are more precise when the values fit.
+    private static final Format[] CANDIDATES = {
+        Format.UnsignedByte, Format.Byte, Format.UnsignedShort, Format.Short, Format.Half
+    };
+
+    private final Map<Type, Float> tolerances = new EnumMap<>(Type.class);
+
+    public QuantizeProcessor() {
+        // A byte normal is off by at most 0.004, about a quarter degree
+        setTolerance(Type.Normal, 0.005f);
+        setTolerance(Type.Tangent, 0.005f);
+        setTolerance(Type.Binormal, 0.005f);
+        // About a texel of a 2048 texture
+        for( Type type : TEXCOORDS ) {
+            setTolerance(type, 0.0005f);
+        }
+    }
+
+    /**
+     *  Sets the largest error allowed in any component of the specified
+     *  attribute type.  A tolerance of 0 or less leaves the attribute as
+     *  floats.  Only normals, tangents, binormals, colors, and texture
+     *  coordinates are supported.  Colors default to 0, the others default
+     *  to values that are not visibly different.
+     */
+    public void setTolerance( Type type, float tolerance ) {
+        if( !SUPPORTED.contains(type) ) {
+            throw new IllegalArgumentException("Quantizing is not supported for:" + type);
+        }
+        if( tolerance <= 0 ) {
+            tolerances.remove(type);
+        } else {
+            tolerances.put(type, tolerance);
+        }
+    }
+
+    public float getTolerance( Type type ) {
+        Float result = tolerances.get(type);
+        return result == null ? 0 : result;
+    }
+
+    @Override
+    public void apply( ModelInfo info ) {
+        // Shared vertex buffers are only converted once
+        final Set<VertexBuffer> buffers = Collections.newSetFromMap(new IdentityHashMap<VertexBuffer, Boolean>());
+        final Set<VertexBuffer> skipped = Collections.newSetFromMap(new IdentityHashMap<VertexBuffer, Boolean>());
+        info.getModelRoot().depthFirstTraversal(new SceneGraphVisitorAdapter() {
+                @Override
+                public void visit( Geometry geom ) {
+                    Mesh mesh = geom.getMesh();
+                    if( mesh == null ) {
+                        return;
+                    }
+                    boolean animated = mesh.hasMorphTargets() || mesh.getBuffer(Type.BoneIndex) != null
+                                       || mesh.getBuffer(Type.HWBoneIndex) != null;
+                    for( VertexBuffer vb : mesh.getBufferList() ) {
+                        if( animated && DIRECTIONS.contains(vb.getBufferType()) ) {
+                            skipped.add(vb);
+                        } else {
+                            buffers.add(vb);
+                        }
+                    }
+                }
+            });
+        // A buffer used by both an animated and a static mesh is left alone
+        buffers.removeAll(skipped);
+
+        long before = 0;
+        long after = 0;
+        Map<String, Integer> counts = new TreeMap<>();
+        for( VertexBuffer vb : buffers ) {
+            if( vb.getFormat() != Format.Float || vb.getData() == null || vb.isInstanced()
+                || vb.getStride() != 0 || vb.getOffset() != 0 ) {
+                continue;
+            }
+            float tolerance = getTolerance(vb.getBufferType());
+            if( tolerance <= 0 ) {
+                continue;
+            }
+            long size = vb.getData().limit() * 4L;
+            Format format = quantize(vb, tolerance);
+            if( format == null ) {
+                continue;
+            }
+            before += size;
+            after += vb.getData().limit() * (long)format.getComponentSize();
+            String key = vb.getBufferType() + " " + format;
+            Integer count = counts.get(key);
+            counts.put(key, count == null ? 1 : count + 1);
+        }
+        if( before > 0 ) {
+            log.info(String.format("Quantized %s vertex data from %.2f kb to %.2f kb: %s",
+                                   info.getModelName(), before / 1024.0, after / 1024.0, counts));
+        }
+    }
+
+    /**
+     *  Converts the buffer to the smallest format within the tolerance and
+     *  returns that format, or returns null if no format was close enough.
+     */
+    protected Format quantize( VertexBuffer vb, float tolerance ) {
+        FloatBuffer data = (FloatBuffer)vb.getData();
+        int count = data.limit();
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for( int i = 0; i < count; i++ ) {
+            float f = data.get(i);
+            if( Float.isNaN(f) || Float.isInfinite(f) ) {
+                return null;
+            }
+            min = Math.min(min, f);
+            max = Math.max(max, f);
+        }
+        for( Format format : CANDIDATES ) {
+            if( !inRange(format, min, max) || getMaxError(data, format) > tolerance ) {
+                continue;
+            }
+            Buffer result = encode(data, format);
+            vb.setupData(vb.getUsage(), vb.getNumComponents(), format, result);
+            vb.setNormalized(format != Format.Half);
+            return format;
+        }
+        return null;
+    }
+
+    private static boolean inRange( Format format, float min, float max ) {
+        switch( format ) {
+            case Byte:
+            case Short:
+                return min >= -1 && max <= 1;
+            case UnsignedByte:
+            case UnsignedShort:
+                return min >= 0 && max <= 1;
+            case Half:
+                return min >= -65504 && max <= 65504;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     *  Returns the integer (or half float bits) for the value in the
+     *  specified format.
+     */
+    private static int encode( float f, Format format ) {
+        switch( format ) {
+            case Byte:
+                return Math.round(f * 127);
+            case UnsignedByte:
+                return Math.round(f * 255);
+            case Short:
+                return Math.round(f * 32767);
+            case UnsignedShort:
+                return Math.round(f * 65535);
+            case Half:
+                return FastMath.convertFloatToHalf(f);
+            default:
+                throw new IllegalArgumentException("Unsupported format:" + format);
+        }
+    }
+
+    /**
+     *  Returns the value the GPU will see for the encoded value, following
+     *  the OpenGL rules for normalized integers.
+     */
+    private static float decode( int value, Format format ) {
+        switch( format ) {
+            case Byte:
+                return Math.max(value / 127f, -1f);
+            case UnsignedByte:
+                return value / 255f;
+            case Short:
+                return Math.max(value / 32767f, -1f);
+            case UnsignedShort:
+                return value / 65535f;
+            case Half:
+                return FastMath.convertHalfToFloat((short)value);
+            default:
+                throw new IllegalArgumentException("Unsupported format:" + format);
+        }
+    }
+
+    private static float getMaxError( FloatBuffer data, Format format ) {
+        float result = 0;
+        for( int i = 0, count = data.limit(); i < count; i++ ) {
+            float f = data.get(i);
+            result = Math.max(result, Math.abs(decode(encode(f, format), format) - f));
+        }
+        return result;
+    }
+
+    private static Buffer encode( FloatBuffer data, Format format ) {
+        int count = data.limit();
+        Buffer result;
+        switch( format ) {
+            case Byte:
+            case UnsignedByte:
+                ByteBuffer bytes = BufferUtils.createByteBuffer(count);
+                for( int i = 0; i < count; i++ ) {
+                    bytes.put((byte)encode(data.get(i), format));
+                }
+                result = bytes;
+                break;
+            case Short:
+            case UnsignedShort:
+                ShortBuffer shorts = BufferUtils.createShortBuffer(count);
+                for( int i = 0; i < count; i++ ) {
+                    shorts.put((short)encode(data.get(i), format));
+                }
+                result = shorts;
+                break;
+            case Half:
+                // jME keeps half floats in a ByteBuffer, see VertexBuffer.convertToHalf()
+                ByteBuffer halfs = BufferUtils.createByteBuffer(count * 2);
+                for( int i = 0; i < count; i++ ) {
+                    halfs.putShort((short)encode(data.get(i), format));
+                }
+                result = halfs;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported format:" + format);
+        }
+        result.clear();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[tolerances=" + tolerances + "]";
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ *  An in-memory index of the files under an ordered list of source
+ *  roots.  Asset names are resolved against the roots in order, so the
+ *  first root that has a file wins.  Resolving a name is a hash lookup
+ *  instead of a set of file system probes per root.
+ *
+ *  <p>The index is built the first time it is used and is not updated
+ *  after that.  Files added to the roots afterwards are not found
+ *  until rebuild() is called.  A single index can be shared by the asset
+ *  readers of all of the workers in a run.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class SourceIndex {
+
+    static Logger log = LoggerFactory.getLogger(SourceIndex.class);
+
+    private final List<File> roots;
+    private final boolean ignoreCase;
+    private volatile Map<String, File> index;
+
+    public SourceIndex( File root ) {
+        this(Collections.singletonList(root), false);
+    }
+
+    public SourceIndex( List<File> roots, boolean ignoreCase ) {
+        if( roots.isEmpty() ) {
+            throw new IllegalArgumentException("No source roots specified");
+        }
+        List<File> list = new ArrayList<>();
+        for( File f : roots ) {
+            try {
+                list.add(f.getCanonicalFile());
+            } catch( IOException e ) {
+                throw new RuntimeException("Error getting canonical path for:" + f, e);
+            }
+        }
+        this.roots = ImmutableList.copyOf(list);
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     *  Returns the canonical source roots in search order.
+     */
+    public List<File> getRoots() {
+        return roots;
+    }
+
+    /**
+     *  Returns the first source root, which is the root that models are
+     *  loaded relative to.
+     */
+    public File getPrimaryRoot() {
+        return roots.get(0);
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     *  Returns the file for the specified asset name from the first root
+     *  that contains it or null if no root does.
+     */
+    public File findFile( String assetName ) {
+        return getIndex().get(toKey(assetName));
+    }
+
+    /**
+     *  Returns the number of distinct asset names in the index.
+     */
+    public int size() {
+        return getIndex().size();
+    }
+
+    /**
+     *  Forces the index to be rebuilt the next time that it is used.
+     */
+    public void rebuild() {
+        index = null;
+    }
+
+    protected Map<String, File> getIndex() {
+        Map<String, File> result = index;
+        if( result == null ) {
+            synchronized( this ) {
+                result = index;
+                if( result == null ) {
+                    result = buildIndex();
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    protected Map<String, File> buildIndex() {
+        long start = System.nanoTime();
+        final Map<String, File> result = new HashMap<>();
+        for( File root : roots ) {
+            final Path base = root.toPath();
+            try {
+                java.nio.file.Files.walkFileTree(base, EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+                                                 Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile( Path file, BasicFileAttributes attrs ) {
+                            if( attrs.isRegularFile() ) {
+                                String key = toKey(base.relativize(file).toString());
+                                if( !result.containsKey(key) ) {
+                                    result.put(key, file.toFile());
+                                }
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed( Path file, IOException e ) {
+                            log.warn("Skipping unreadable path:" + file, e);
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+            } catch( IOException e ) {
+                throw new RuntimeException("Error indexing source root:" + root, e);
+            }
+        }
+        long end = System.nanoTime();
+        log.info(String.format("Indexed %d files in %d source root(s) in %.2f ms",
+                               result.size(), roots.size(), (end - start) / 1000000.0));
+        return result;
+    }
+
+    protected String toKey( String name ) {
+        name = name.replace('\\', '/');
+        while( name.startsWith("/") ) {
+            name = name.substring(1);
+        }
+        return ignoreCase ? name.toLowerCase(Locale.ROOT) : name;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[roots=" + roots + ", ignoreCase=" + ignoreCase + "]";
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.MapMaker;
+
+import com.jme3.asset.TextureKey;
+import com.jme3.texture.*;
+
+/**
+ *  A size bounded, least-recently-used cache of loaded textures that can
+ *  be shared by many AssetReaders so that textures used by many models are
+ *  only decoded once per run.  Cached textures are only handed out for the
+ *  same TextureKey and the same source file and are reloaded if the source
+ *  file's size or last modified time changes.
+ *
+ *  <p>The cached Image data is shared by every model that uses the texture
+ *  and so must be treated as read-only.  Only the textures themselves
+ *  are cached.  Models are always loaded fresh.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class TextureCache {
+
+    static Logger log = LoggerFactory.getLogger(TextureCache.class);
+
+    // Every image that has been put in any cache, by identity, because
+    // other models may still be using them after they are evicted
+    private static final Set<Image> sharedImages
+            = Collections.newSetFromMap(new MapMaker().weakKeys().<Image, Boolean>makeMap());
+
+    private final long maxBytes;
+    private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     *  Creates a cache that will hold textures whose image data adds up to
+     *  no more than the specified number of bytes.
+     */
+    public TextureCache( long maxBytes ) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     *  Returns the cached texture for the specified key and source file or
+     *  null if it is not cached or the file has changed.  The file may be null
+     *  for assets that do not come from the file system, ie: the classpath.
+     */
+    public synchronized Texture get( TextureKey key, File file ) {
+        CacheKey cacheKey = new CacheKey(key, file);
+        Entry entry = entries.get(cacheKey);
+        if( entry != null && !entry.isCurrent(file) ) {
+            log.debug("Source changed:" + file);
+            remove(cacheKey);
+            entry = null;
+        }
+        if( entry == null ) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.texture;
+    }
+
+    /**
+     *  Adds the specified texture to the cache, evicting the least recently
+     *  used textures as needed to stay under the maximum size.  Textures
+     *  larger than the cache are not added.
+     */
+    public synchronized void put( TextureKey key, File file, Texture texture ) {
+        long bytes = getImageSize(texture.getImage());
+        if( bytes > maxBytes ) {
+            log.debug("Texture too large to cache:" + key + " bytes:" + bytes);
+            return;
+        }
+        CacheKey cacheKey = new CacheKey(key, file);
+        remove(cacheKey);
+        entries.put(cacheKey, new Entry(texture, bytes, file));
+        if( texture.getImage() != null ) {
+            sharedImages.add(texture.getImage());
+        }
+        size += bytes;
+
+        for( Iterator<Entry> it = entries.values().iterator(); size > maxBytes && it.hasNext(); ) {
+            Entry eldest = it.next();
+            it.remove();
+            size -= eldest.bytes;
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     *  Returns true if the specified image has been shared through any
+     *  TextureCache and so may be in use by more than one model.
+     */
+    public static boolean isShared( Image image ) {
+        return sharedImages.contains(image);
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getTextureCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void logStats() {
+        log.info(String.format("Texture cache: %d hit(s), %d miss(es), %d eviction(s), %d texture(s) %.2f mb of %.2f mb",
+                               hits, misses, evictions, entries.size(),
+                               size / (1024.0 * 1024.0), maxBytes / (1024.0 * 1024.0)));
+    }
+
+    /**
+     *  Returns the number of bytes of image data in the specified image.
+     */
+    public static long getImageSize( Image image ) {
+        if( image == null ) {
+            return 0;
+        }
+        long total = 0;
+        for( ByteBuffer data : image.getData() ) {
+            if( data != null ) {
+                total += data.capacity();
+            }
+        }
+        return total;
+    }
+
+    private void remove( CacheKey cacheKey ) {
+        Entry existing = entries.remove(cacheKey);
+        if( existing != null ) {
+            size -= existing.bytes;
+        }
+    }
+
+    private static class CacheKey {
+        private final TextureKey key;
+        private final File file;
+
+        public CacheKey( TextureKey key, File file ) {
+            this.key = key;
+            this.file = file;
+        }
+
+        @Override
+        public boolean equals( Object o ) {
+            if( o == this ) {
+                return true;
+            }
+            if( !(o instanceof CacheKey) ) {
+                return false;
+            }
+            CacheKey other = (CacheKey)o;
+            return key.equals(other.key) && Objects.equal(file, other.file);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key, file);
+        }
+    }
+
+    private static class Entry {
+        final Texture texture;
+        final long bytes;
+        final long length;
+        final long lastModified;
+
+        public Entry( Texture texture, long bytes, File file ) {
+            this.texture = texture;
+            this.bytes = bytes;
+            this.length = file == null ? 0 : file.length();
+            this.lastModified = file == null ? 0 : file.lastModified();
+        }
+
+        public boolean isCurrent( File file ) {
+            return file == null || (file.length() == length && file.lastModified() == lastModified);
+        }
+    }
+}
@@ -0,0 +1,545 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.*;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import com.jme3.asset.AssetKey;
+import com.jme3.asset.TextureKey;
+import com.jme3.texture.Texture;
+
+/**
+ *  Re-encodes texture dependencies instead of copying them as-is.  Textures
+ *  can be scaled down to fit a maximum size and written as DDS files with
+ *  their full mip chain already generated, either uncompressed or DXT
+ *  compressed.  See DdsWriter.
+ *
+ *  <p>Encoded files are kept in a cache directory under a hash of the source
+ *  file's content and the encoder settings, so a texture is only encoded
+ *  once no matter how many models or runs use it.  The AssetWriter then
+ *  copies the cached file to the target like any other dependency.</p>
+ *
+ *  <p>Only 2D textures in formats that ImageIO can read (png, jpg, bmp, gif)
+ *  are encoded.  Images are scaled by halving them until they fit, which
+ *  keeps their aspect ratio and each step is a simple 2x2 box filter.</p>
+ *
+ *  <p>A TextureEncoder can be shared by any number of AssetWriters on any
+ *  number of threads.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class TextureEncoder {
+
+    static Logger log = LoggerFactory.getLogger(TextureEncoder.class);
+
+    // Changes whenever the encoded output would change for the same settings
+    private static final int VERSION = 2;
+
+    public static final String[] DEFAULT_EXTENSIONS = { "png", "jpg", "jpeg", "bmp", "gif" };
+
+    /**
+     *  The file format written for encoded textures.
+     */
+    public enum Format {
+        /** Writes the same kind of image as the source, only scaled down. */
+        SOURCE,
+        /** Writes uncompressed DDS files. */
+        DDS,
+        /** Writes DXT1 compressed DDS files, or DXT5 for images with alpha. */
+        DXT
+    }
+
+    private Format format = Format.SOURCE;
+    private int maxSize;
+    private boolean mipmaps = true;
+    private final Set<String> extensions = new HashSet<>(Arrays.asList(DEFAULT_EXTENSIONS));
+    private File cacheDir;
+    private File tempDir;
+
+    private final ConcurrentMap<File, Content> hashes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FutureTask<File>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger encodedCount = new AtomicInteger();
+    private final AtomicInteger cachedCount = new AtomicInteger();
+
+    public TextureEncoder() {
+    }
+
+    public TextureEncoder( Format format, int maxSize ) {
+        this.format = format;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     *  Sets the file format written for encoded textures.  Defaults to SOURCE,
+     *  which only scales textures down.
+     */
+    public void setFormat( Format format ) {
+        this.format = format;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     *  Sets the largest width or height of an encoded texture or 0 to keep
+     *  the source size.  Defaults to 0.
+     */
+    public void setMaxSize( int maxSize ) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     *  Sets whether DDS files are written with their full mip chain.
+     *  Defaults to true.
+     */
+    public void setMipmaps( boolean mipmaps ) {
+        this.mipmaps = mipmaps;
+    }
+
+    public boolean getMipmaps() {
+        return mipmaps;
+    }
+
+    /**
+     *  Sets the directory where encoded textures are cached between runs.
+     *  Defaults to null, which uses a temporary directory that is deleted
+     *  when the JVM exits.
+     */
+    public void setCacheDir( File cacheDir ) {
+        this.cacheDir = cacheDir;
+    }
+
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     *  Returns true if the specified dependency source file should be encoded
+     *  instead of copied.
+     */
+    public boolean accepts( File source, AssetKey key ) {
+        if( format == Format.SOURCE && maxSize <= 0 ) {
+            return false;
+        }
+        if( !(key instanceof TextureKey) ) {
+            return false;
+        }
+        if( ((TextureKey)key).getTextureTypeHint() != Texture.Type.TwoDimensional ) {
+            return false;
+        }
+        return extensions.contains(Files.getFileExtension(source.getName()).toLowerCase());
+    }
+
+    /**
+     *  Returns the target path of an encoded texture given the path it would
+     *  have been copied to, ie: with a .dds extension for DDS formats.
+     */
+    public String getTargetPath( String path ) {
+        String ext = Files.getFileExtension(path);
+        String base = path.substring(0, path.length() - ext.length());
+        return base + getExtension(ext);
+    }
+
+    protected String getExtension( String sourceExtension ) {
+        if( format != Format.SOURCE ) {
+            return "dds";
+        }
+        String ext = sourceExtension.toLowerCase();
+        if( "jpg".equals(ext) || "jpeg".equals(ext) ) {
+            return sourceExtension;
+        }
+        return "png";
+    }
+
+    /**
+     *  Returns the number of textures that were encoded.
+     */
+    public int getEncodedCount() {
+        return encodedCount.get();
+    }
+
+    /**
+     *  Returns the number of textures that were already in the cache.
+     */
+    public int getCachedCount() {
+        return cachedCount.get();
+    }
+
+    /**
+     *  Returns a file containing the encoded version of the specified source
+     *  file, encoding it first if it is not already cached.  This may return
+     *  the source file itself when it does not need to change.  Threads that
+     *  ask for a texture that is already being encoded wait for it.
+     */
+    public File encode( final File source ) throws IOException {
+        final String hash = getHash(source);
+        FutureTask<File> task = new FutureTask<>(new Callable<File>() {
+                @Override
+                public File call() throws IOException {
+                    return encode(source, hash);
+                }
+            });
+        FutureTask<File> existing = pending.putIfAbsent(hash, task);
+        if( existing == null ) {
+            try {
+                task.run();
+            } finally {
+                pending.remove(hash);
+            }
+        } else {
+            task = existing;
+        }
+        try {
+            return task.get();
+        } catch( InterruptedException e ) {
+            throw new InterruptedIOException("Interrupted waiting for texture:" + source);
+        } catch( ExecutionException e ) {
+            if( e.getCause() instanceof IOException ) {
+                throw (IOException)e.getCause();
+            }
+            throw new IOException("Error encoding texture:" + source, e.getCause());
+        }
+    }
+
+    protected File encode( File source, String hash ) throws IOException {
+        String ext = getExtension(Files.getFileExtension(source.getName()));
+        File cached = new File(getCacheRoot(), hash.substring(0, 2) + "/" + hash + "." + ext);
+        if( cached.exists() ) {
+            cachedCount.incrementAndGet();
+            return cached;
+        }
+        if( ext.equals(Files.getFileExtension(source.getName())) && fits(source) ) {
+            // Nothing to do
+            return source;
+        }
+
+        long start = System.nanoTime();
+        BufferedImage image = ImageIO.read(source);
+        if( image == null ) {
+            throw new IOException("Unsupported image:" + source);
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = readPixels(image);
+        boolean resized = false;
+        while( maxSize > 0 && Math.max(width, height) > maxSize ) {
+            pixels = halve(pixels, width, height);
+            width = Math.max(1, width / 2);
+            height = Math.max(1, height / 2);
+            resized = true;
+        }
+
+        cached.getParentFile().mkdirs();
+        File temp = File.createTempFile(cached.getName(), ".tmp", cached.getParentFile());
+        try {
+            if( format == Format.SOURCE ) {
+                writeImage(pixels, width, height, ext, temp);
+                if( !resized && "png".equals(ext) ) {
+                    // A lossless copy at the same size must have exactly the
+                    // source pixels, ie: no color space conversion
+                    checkPixels(source, pixels, temp);
+                }
+            } else {
+                writeDds(pixels, width, height, temp);
+            }
+            move(temp, cached);
+        } finally {
+            if( temp.exists() ) {
+                temp.delete();
+            }
+        }
+        encodedCount.incrementAndGet();
+        log.info(String.format("Encoded:%s as %dx%d %s in %.1f ms", source, width, height, format,
+                               (System.nanoTime() - start) / 1000000.0));
+        return cached;
+    }
+
+    /**
+     *  Returns true if the image is already within the max size, reading only
+     *  the image header.
+     */
+    protected boolean fits( File source ) throws IOException {
+        if( maxSize <= 0 ) {
+            return true;
+        }
+        try( ImageInputStream in = ImageIO.createImageInputStream(source) ) {
+            Iterator<ImageReader> it = ImageIO.getImageReaders(in);
+            if( !it.hasNext() ) {
+                throw new IOException("Unsupported image:" + source);
+            }
+            ImageReader reader = it.next();
+            try {
+                reader.setInput(in);
+                return Math.max(reader.getWidth(0), reader.getHeight(0)) <= maxSize;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     *  Returns the ARGB pixels of the image.  Gray images are read straight
+     *  from their raster because BufferedImage.getRGB() converts their linear
+     *  gray values to sRGB, which brightens them.  The loaders use the raw
+     *  gray values as they are.
+     */
+    protected static int[] readPixels( BufferedImage image ) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ColorModel cm = image.getColorModel();
+        if( cm.getColorSpace().getType() != ColorSpace.TYPE_GRAY ) {
+            return image.getRGB(0, 0, width, height, null, 0, width);
+        }
+        Raster raster = image.getRaster();
+        boolean alpha = cm.hasAlpha() && raster.getNumBands() > 1;
+        int grayMax = (1 << cm.getComponentSize(0)) - 1;
+        int alphaMax = alpha ? (1 << cm.getComponentSize(1)) - 1 : 0;
+        int[] result = new int[width * height];
+        for( int y = 0; y < height; y++ ) {
+            for( int x = 0; x < width; x++ ) {
+                int g = (raster.getSample(x, y, 0) * 255 + grayMax / 2) / grayMax;
+                int a = alpha ? (raster.getSample(x, y, 1) * 255 + alphaMax / 2) / alphaMax : 255;
+                result[y * width + x] = a << 24 | g << 16 | g << 8 | g;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isOpaqueGray( int[] pixels ) {
+        for( int argb : pixels ) {
+            int g = argb & 0xff;
+            if( (argb >>> 24) != 0xff || ((argb >> 8) & 0xff) != g || ((argb >> 16) & 0xff) != g ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     *  Reads the written image back and makes sure it has the expected pixels.
+     */
+    protected void checkPixels( File source, int[] expected, File written ) throws IOException {
+        BufferedImage image = ImageIO.read(written);
+        if( image == null || !Arrays.equals(expected, readPixels(image)) ) {
+            throw new IOException("Encoded texture does not match the source pixels:" + source);
+        }
+    }
+
+    protected void writeImage( int[] pixels, int width, int height, String ext, File file ) throws IOException {
+        boolean jpg = !"png".equals(ext);
+        BufferedImage image;
+        if( isOpaqueGray(pixels) ) {
+            // Write gray images as gray by setting the raster samples directly,
+            // setRGB() would convert them to linear gray and darken them
+            image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+            WritableRaster raster = image.getRaster();
+            for( int i = 0; i < pixels.length; i++ ) {
+                raster.setSample(i % width, i / width, 0, pixels[i] & 0xff);
+            }
+        } else {
+            // JPEG has no alpha
+            image = new BufferedImage(width, height, jpg ? BufferedImage.TYPE_INT_RGB
+                                                         : BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(0, 0, width, height, pixels, 0, width);
+        }
+        if( !ImageIO.write(image, jpg ? "jpg" : "png", file) ) {
+            throw new IOException("No image writer for:" + ext);
+        }
+    }
+
+    protected void writeDds( int[] pixels, int width, int height, File file ) throws IOException {
+        DdsWriter.Format ddsFormat = DdsWriter.Format.RGBA8;
+        if( format == Format.DXT ) {
+            ddsFormat = hasAlpha(pixels) ? DdsWriter.Format.DXT5 : DdsWriter.Format.DXT1;
+        }
+        List<int[]> levels = new ArrayList<>();
+        levels.add(pixels);
+        int w = width;
+        int h = height;
+        while( mipmaps && (w > 1 || h > 1) ) {
+            pixels = halve(pixels, w, h);
+            w = Math.max(1, w / 2);
+            h = Math.max(1, h / 2);
+            levels.add(pixels);
+        }
+        try( OutputStream out = new FileOutputStream(file) ) {
+            new DdsWriter(ddsFormat).write(levels, width, height, out);
+        }
+    }
+
+    private static boolean hasAlpha( int[] pixels ) {
+        for( int argb : pixels ) {
+            if( (argb >>> 24) != 0xff ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     *  Returns a half size copy of the ARGB pixels by averaging each 2x2
+     *  block of pixels.  Odd rows and columns are blended into the last
+     *  pixel, and dimensions of 1 stay 1.
+     */
+    protected static int[] halve( int[] pixels, int width, int height ) {
+        int w = Math.max(1, width / 2);
+        int h = Math.max(1, height / 2);
+        int[] result = new int[w * h];
+        for( int y = 0; y < h; y++ ) {
+            int y0 = Math.min(y * 2, height - 1);
+            int y1 = Math.min(y * 2 + 1, height - 1);
+            for( int x = 0; x < w; x++ ) {
+                int x0 = Math.min(x * 2, width - 1);
+                int x1 = Math.min(x * 2 + 1, width - 1);
+                int p0 = pixels[y0 * width + x0];
+                int p1 = pixels[y0 * width + x1];
+                int p2 = pixels[y1 * width + x0];
+                int p3 = pixels[y1 * width + x1];
+                int argb = 0;
+                for( int shift = 0; shift < 32; shift += 8 ) {
+                    int sum = ((p0 >>> shift) & 0xff) + ((p1 >>> shift) & 0xff)
+                            + ((p2 >>> shift) & 0xff) + ((p3 >>> shift) & 0xff);
+                    argb |= ((sum + 2) >> 2) << shift;
+                }
+                result[y * w + x] = argb;
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Returns the cache key for the source file, ie: a SHA-1 hash of its
+     *  content and the encoder settings.  Source hashes are reused while
+     *  the file's size and last modified time stay the same.
+     */
+    protected String getHash( File source ) throws IOException {
+        File key = source.getAbsoluteFile().toPath().normalize().toFile();
+        long size = key.length();
+        long lastModified = key.lastModified();
+        Content content = hashes.get(key);
+        if( content == null || content.size != size || content.lastModified != lastModified ) {
+            content = new Content(Files.hash(key, Hashing.sha1()).toString(), size, lastModified);
+            hashes.put(key, content);
+        }
+        return Hashing.sha1().newHasher()
+                .putString(content.hash, Charsets.UTF_8).putByte((byte)0)
+                .putString(toString(), Charsets.UTF_8).putByte((byte)0)
+                .putInt(VERSION)
+                .hash().toString();
+    }
+
+    protected synchronized File getCacheRoot() throws IOException {
+        if( cacheDir != null ) {
+            return cacheDir;
+        }
+        if( tempDir == null ) {
+            tempDir = java.nio.file.Files.createTempDirectory("jmec-textures").toFile();
+            Runtime.getRuntime().addShutdownHook(new Thread("jmec-texture-cleanup") {
+                    @Override
+                    public void run() {
+                        delete(tempDir);
+                    }
+                });
+        }
+        return tempDir;
+    }
+
+    private static void delete( File file ) {
+        File[] children = file.listFiles();
+        if( children != null ) {
+            for( File child : children ) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void move( File temp, File target ) throws IOException {
+        try {
+            java.nio.file.Files.move(temp.toPath(), target.toPath(),
+                                     StandardCopyOption.REPLACE_EXISTING,
+                                     StandardCopyOption.ATOMIC_MOVE);
+        } catch( AtomicMoveNotSupportedException e ) {
+            java.nio.file.Files.move(temp.toPath(), target.toPath(),
+                                     StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[format=" + format + ", maxSize=" + maxSize
+                + ", mipmaps=" + mipmaps + "]";
+    }
+
+    private static class Content {
+        final String hash;
+        final long size;
+        final long lastModified;
+
+        public Content( String hash, long size, long lastModified ) {
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,576 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec;
+
+import java.nio.*;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.jme3.scene.*;
+import com.jme3.scene.mesh.IndexBuffer;
+import com.jme3.util.BufferUtils;
+
+/**
+ *  A model processor that reorders the triangles of indexed triangle meshes
+ *  for the GPU's post-transform vertex cache using Tom Forsyth's linear-speed
+ *  algorithm and then renumbers the vertexes in the order they are first
+ *  used so that vertex fetches are mostly sequential.  Int index buffers
+ *  are shrunk to shorts when the mesh has few enough vertexes.
+ *
+ *  <p>The average cache miss ratio (ACMR, vertex cache misses per triangle
+ *  for a FIFO cache of the configured size) is logged for each mesh before
+ *  and after.  1.0 is a good result for a regular grid and 3.0 is the worst
+ *  possible.</p>
+ *
+ *  <p>Meshes whose vertex buffers are shared with other meshes or are
+ *  interleaved only have their triangles reordered.  Meshes that share an
+ *  index buffer, morph target meshes, and instanced meshes are left alone.
+ *  LOD levels are reordered along with the mesh.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class VertexCacheProcessor implements ModelProcessor {
+
+    static Logger log = LoggerFactory.getLogger(VertexCacheProcessor.class);
+
+    // Forsyth scoring constants from the original article
+    private static final float CACHE_DECAY_POWER = 1.5f;
+    private static final float LAST_TRI_SCORE = 0.75f;
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+
+    private int cacheSize = 32;
+    private boolean shrinkIndexes = true;
+
+    public VertexCacheProcessor() {
+    }
+
+    /**
+     *  Sets the size of the vertex cache that is optimized for and simulated
+     *  for the ACMR.  Defaults to 32.
+     */
+    public void setCacheSize( int cacheSize ) {
+        if( cacheSize < 4 ) {
+            throw new IllegalArgumentException("Cache size must be at least 4:" + cacheSize);
+        }
+        this.cacheSize = cacheSize;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     *  Set to true to convert int index buffers to short index buffers
+     *  when all of the indexes fit.  Defaults to true.
+     */
+    public void setShrinkIndexes( boolean shrinkIndexes ) {
+        this.shrinkIndexes = shrinkIndexes;
+    }
+
+    public boolean getShrinkIndexes() {
+        return shrinkIndexes;
+    }
+
+    @Override
+    public void apply( ModelInfo info ) {
+        // Collect the meshes once each no matter how many geometries use them
+        final Map<Mesh, String> meshes = new IdentityHashMap<>();
+        final List<Mesh> order = new ArrayList<>();
+        info.getModelRoot().depthFirstTraversal(new SceneGraphVisitorAdapter() {
+                @Override
+                public void visit( Geometry geom ) {
+                    Mesh mesh = geom.getMesh();
+                    if( mesh != null && !meshes.containsKey(mesh) ) {
+                        meshes.put(mesh, geom.getName());
+                        order.add(mesh);
+                    }
+                }
+            });
+
+        // Find the buffers used by more than one mesh
+        Map<Buffer, Mesh> owners = new IdentityHashMap<>();
+        Set<Buffer> shared = Collections.newSetFromMap(new IdentityHashMap<Buffer, Boolean>());
+        for( Mesh mesh : order ) {
+            for( Buffer data : getBufferData(mesh) ) {
+                Mesh owner = owners.get(data);
+                if( owner == null ) {
+                    owners.put(data, mesh);
+                } else if( owner != mesh ) {
+                    shared.add(data);
+                }
+            }
+        }
+
+        long missesBefore = 0;
+        long missesAfter = 0;
+        long triangles = 0;
+        for( Mesh mesh : order ) {
+            Result result = optimize(meshes.get(mesh), mesh, shared);
+            if( result == null ) {
+                continue;
+            }
+            missesBefore += result.missesBefore;
+            missesAfter += result.missesAfter;
+            triangles += result.triangles;
+        }
+        if( triangles > 0 ) {
+            log.info(String.format("Optimized %s for a %d vertex cache: ACMR %.3f before, %.3f after",
+                                   info.getModelName(), cacheSize,
+                                   (double)missesBefore / triangles, (double)missesAfter / triangles));
+        }
+    }
+
+    private static List<Buffer> getBufferData( Mesh mesh ) {
+        List<Buffer> result = new ArrayList<>();
+        for( VertexBuffer vb : mesh.getBufferList() ) {
+            if( vb.getData() != null ) {
+                result.add(vb.getData());
+            }
+        }
+        for( int i = 0; i < mesh.getNumLodLevels(); i++ ) {
+            VertexBuffer vb = mesh.getLodLevel(i);
+            if( vb.getData() != null && vb != mesh.getBuffer(VertexBuffer.Type.Index) ) {
+                result.add(vb.getData());
+            }
+        }
+        return result;
+    }
+
+    /**
+     *  Optimizes the mesh and returns the cache results or null if the mesh
+     *  could not be optimized.
+     */
+    protected Result optimize( String name, Mesh mesh, Set<Buffer> shared ) {
+        VertexBuffer indexBuffer = mesh.getBuffer(VertexBuffer.Type.Index);
+        if( mesh.getMode() != Mesh.Mode.Triangles || indexBuffer == null || indexBuffer.getData() == null
+            || mesh.hasMorphTargets() || mesh.getBuffer(VertexBuffer.Type.InstanceData) != null ) {
+            return null;
+        }
+        if( shared.contains(indexBuffer.getData()) ) {
+            log.debug("Skipping mesh with shared indexes:" + name);
+            return null;
+        }
+        int vertexCount = mesh.getVertexCount();
+        boolean reorderVertexes = true;
+        for( VertexBuffer vb : mesh.getBufferList() ) {
+            if( vb == indexBuffer ) {
+                continue;
+            }
+            if( vb.isInstanced() || vb.getData() == null || vb.getNumElements() != vertexCount
+                || vb.getStride() != 0 || vb.getOffset() != 0 || shared.contains(vb.getData()) ) {
+                reorderVertexes = false;
+            }
+        }
+
+        int[] indexes = readIndexes(indexBuffer);
+        if( indexes.length < 3 || indexes.length % 3 != 0 ) {
+            return null;
+        }
+        Result result = new Result();
+        result.triangles = indexes.length / 3;
+        result.missesBefore = countCacheMisses(indexes, vertexCount, cacheSize);
+
+        // Separate LOD levels, level 0 is often the main index buffer itself
+        int lodCount = mesh.getNumLodLevels();
+        int[][] lods = new int[lodCount][];
+        for( int i = 0; i < lodCount; i++ ) {
+            VertexBuffer lod = mesh.getLodLevel(i);
+            if( lod != indexBuffer ) {
+                if( shared.contains(lod.getData()) ) {
+                    log.debug("Skipping mesh with shared LOD indexes:" + name);
+                    return null;
+                }
+                lods[i] = optimizeTriangles(readIndexes(lod), vertexCount);
+            }
+        }
+
+        indexes = optimizeTriangles(indexes, vertexCount);
+        result.missesAfter = countCacheMisses(indexes, vertexCount, cacheSize);
+        if( reorderVertexes ) {
+            int[] remap = createFetchOrder(indexes, vertexCount);
+            remapIndexes(indexes, remap);
+            for( int[] lod : lods ) {
+                if( lod != null ) {
+                    remapIndexes(lod, remap);
+                }
+            }
+            for( VertexBuffer vb : mesh.getBufferList() ) {
+                if( vb != indexBuffer ) {
+                    vb.updateData(permute(vb, remap));
+                }
+            }
+        }
+
+        VertexBuffer.Format format = indexBuffer.getFormat();
+        if( shrinkIndexes && format == VertexBuffer.Format.UnsignedInt && vertexCount <= 65536 ) {
+            format = VertexBuffer.Format.UnsignedShort;
+        }
+        VertexBuffer newIndexes = createIndexBuffer(indexBuffer, indexes, format);
+        mesh.clearBuffer(VertexBuffer.Type.Index);
+        mesh.setBuffer(newIndexes);
+        if( lodCount > 0 ) {
+            VertexBuffer[] levels = new VertexBuffer[lodCount];
+            for( int i = 0; i < lodCount; i++ ) {
+                VertexBuffer lod = mesh.getLodLevel(i);
+                levels[i] = lods[i] == null ? newIndexes : createIndexBuffer(lod, lods[i], format);
+            }
+            mesh.setLodLevels(levels);
+        }
+
+        log.info(String.format("  %s: %d triangles, ACMR %.3f -> %.3f%s%s", name, result.triangles,
+                               (double)result.missesBefore / result.triangles,
+                               (double)result.missesAfter / result.triangles,
+                               reorderVertexes ? "" : " (shared vertexes not reordered)",
+                               format != indexBuffer.getFormat() ? " (" + indexBuffer.getFormat() + " -> " + format + ")" : ""));
+        return result;
+    }
+
+    /**
+     *  Returns the optimized triangle order or the original order if the
+     *  optimized one is no better, ie: the triangles were already in a good
+     *  order.
+     */
+    protected int[] optimizeTriangles( int[] indexes, int vertexCount ) {
+        int[] result = optimizeTriangles(indexes, vertexCount, cacheSize);
+        if( countCacheMisses(result, vertexCount, cacheSize) < countCacheMisses(indexes, vertexCount, cacheSize) ) {
+            return result;
+        }
+        return indexes;
+    }
+
+    private static int[] readIndexes( VertexBuffer vb ) {
+        IndexBuffer ib = IndexBuffer.wrapIndexBuffer(vb.getData());
+        int[] result = new int[ib.size()];
+        for( int i = 0; i < result.length; i++ ) {
+            result[i] = ib.get(i);
+        }
+        return result;
+    }
+
+    private static VertexBuffer createIndexBuffer( VertexBuffer original, int[] indexes, VertexBuffer.Format format ) {
+        Buffer data;
+        switch( format ) {
+            case UnsignedByte:
+                ByteBuffer bytes = BufferUtils.createByteBuffer(indexes.length);
+                for( int i : indexes ) {
+                    bytes.put((byte)i);
+                }
+                data = bytes;
+                break;
+            case UnsignedShort:
+                ShortBuffer shorts = BufferUtils.createShortBuffer(indexes.length);
+                for( int i : indexes ) {
+                    shorts.put((short)i);
+                }
+                data = shorts;
+                break;
+            default:
+                data = BufferUtils.createIntBuffer(indexes);
+                break;
+        }
+        data.clear();
+        VertexBuffer result = new VertexBuffer(VertexBuffer.Type.Index);
+        result.setupData(original.getUsage(), original.getNumComponents(), format, data);
+        return result;
+    }
+
+    /**
+     *  Returns the number of misses for the specified triangle list in a
+     *  FIFO vertex cache of the specified size.
+     */
+    public static long countCacheMisses( int[] indexes, int vertexCount, int cacheSize ) {
+        // Each vertex remembers when it was added to the cache.  It has
+        // been pushed out once cacheSize more vertexes have been added.
+        long[] added = new long[vertexCount];
+        Arrays.fill(added, -cacheSize - 1);
+        long misses = 0;
+        for( int v : indexes ) {
+            if( misses - added[v] >= cacheSize ) {
+                added[v] = misses;
+                misses++;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     *  Returns the triangles of the list in an order that makes better use
+     *  of a vertex cache, see: Tom Forsyth, "Linear-Speed Vertex Cache
+     *  Optimisation".
+     */
+    public static int[] optimizeTriangles( int[] indexes, int vertexCount, int cacheSize ) {
+        int triCount = indexes.length / 3;
+
+        // Triangles per vertex in a compact adjacency list.  The live
+        // triangles of each vertex are kept at the front of its range.
+        int[] remaining = new int[vertexCount];
+        for( int v : indexes ) {
+            remaining[v]++;
+        }
+        int[] offsets = new int[vertexCount + 1];
+        for( int v = 0; v < vertexCount; v++ ) {
+            offsets[v + 1] = offsets[v] + remaining[v];
+        }
+        int[] adjacency = new int[indexes.length];
+        int[] fill = new int[vertexCount];
+        for( int i = 0; i < indexes.length; i++ ) {
+            int v = indexes[i];
+            adjacency[offsets[v] + fill[v]++] = i / 3;
+        }
+
+        int[] cachePos = new int[vertexCount];
+        Arrays.fill(cachePos, -1);
+        float[] vertexScore = new float[vertexCount];
+        for( int v = 0; v < vertexCount; v++ ) {
+            vertexScore[v] = score(-1, remaining[v], cacheSize);
+        }
+        float[] triScore = new float[triCount];
+        boolean[] emitted = new boolean[triCount];
+        int best = -1;
+        float bestScore = -1;
+        for( int t = 0; t < triCount; t++ ) {
+            triScore[t] = vertexScore[indexes[t * 3]] + vertexScore[indexes[t * 3 + 1]] + vertexScore[indexes[t * 3 + 2]];
+            if( triScore[t] > bestScore ) {
+                bestScore = triScore[t];
+                best = t;
+            }
+        }
+
+        int[] result = new int[indexes.length];
+        int[] cache = new int[cacheSize + 3];
+        int cacheCount = 0;
+        int[] newCache = new int[cacheSize + 3];
+        int cursor = 0;
+        for( int out = 0; out < triCount; out++ ) {
+            if( best < 0 ) {
+                // Nothing in the cache has triangles left so start again
+                // from the next triangle that hasn't been emitted
+                while( emitted[cursor] ) {
+                    cursor++;
+                }
+                best = cursor;
+            }
+            emitted[best] = true;
+            int newCount = 0;
+            for( int c = 0; c < 3; c++ ) {
+                int v = indexes[best * 3 + c];
+                result[out * 3 + c] = v;
+
+                // Remove the triangle from the vertex's live triangles
+                int start = offsets[v];
+                int end = start + remaining[v] - 1;
+                for( int i = start; i <= end; i++ ) {
+                    if( adjacency[i] == best ) {
+                        adjacency[i] = adjacency[end];
+                        adjacency[end] = best;
+                        break;
+                    }
+                }
+                remaining[v]--;
+
+                if( cachePos[v] != -2 ) {
+                    newCache[newCount++] = v;
+                    cachePos[v] = -2; // mark as already added
+                }
+            }
+            // The rest of the old cache follows the new triangle's vertexes
+            for( int i = 0; i < cacheCount; i++ ) {
+                int v = cache[i];
+                if( cachePos[v] != -2 ) {
+                    newCache[newCount++] = v;
+                    cachePos[v] = -2;
+                }
+            }
+
+            // Rescore the vertexes that are or were in the cache
+            for( int i = 0; i < newCount; i++ ) {
+                int v = newCache[i];
+                cachePos[v] = i < cacheSize ? i : -1;
+                vertexScore[v] = score(cachePos[v], remaining[v], cacheSize);
+            }
+
+            // Then rescore their triangles and find the best one
+            best = -1;
+            bestScore = -1;
+            for( int i = 0; i < newCount; i++ ) {
+                int v = newCache[i];
+                for( int a = offsets[v], end = offsets[v] + remaining[v]; a < end; a++ ) {
+                    int t = adjacency[a];
+                    float s = vertexScore[indexes[t * 3]] + vertexScore[indexes[t * 3 + 1]]
+                            + vertexScore[indexes[t * 3 + 2]];
+                    triScore[t] = s;
+                    if( s > bestScore ) {
+                        bestScore = s;
+                        best = t;
+                    }
+                }
+            }
+
+            // Swap the caches, dropping anything past the end
+            int[] temp = cache;
+            cache = newCache;
+            newCache = temp;
+            cacheCount = Math.min(newCount, cacheSize);
+        }
+        return result;
+    }
+
+    private static float score( int cachePos, int remaining, int cacheSize ) {
+        if( remaining == 0 ) {
+            return -1;
+        }
+        float score = 0;
+        if( cachePos >= 0 ) {
+            if( cachePos < 3 ) {
+                // The last triangle's vertexes get a fixed score so that
+                // the next triangle doesn't just strip along one edge
+                score = LAST_TRI_SCORE;
+            } else {
+                float scaler = 1.0f / (cacheSize - 3);
+                score = (float)Math.pow(1.0f - (cachePos - 3) * scaler, CACHE_DECAY_POWER);
+            }
+        }
+        // Favor vertexes with few triangles left so that they are finished off
+        score += VALENCE_BOOST_SCALE * (float)Math.pow(remaining, -VALENCE_BOOST_POWER);
+        return score;
+    }
+
+    /**
+     *  Returns the new index of each vertex such that vertexes are numbered
+     *  in the order they are first used.  Unused vertexes go at the end.
+     */
+    public static int[] createFetchOrder( int[] indexes, int vertexCount ) {
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        int next = 0;
+        for( int v : indexes ) {
+            if( remap[v] < 0 ) {
+                remap[v] = next++;
+            }
+        }
+        for( int v = 0; v < vertexCount; v++ ) {
+            if( remap[v] < 0 ) {
+                remap[v] = next++;
+            }
+        }
+        return remap;
+    }
+
+    private static void remapIndexes( int[] indexes, int[] remap ) {
+        for( int i = 0; i < indexes.length; i++ ) {
+            indexes[i] = remap[indexes[i]];
+        }
+    }
+
+    /**
+     *  Returns a copy of the vertex buffer's data with the elements moved
+     *  to their remapped positions.
+     */
+    private static Buffer permute( VertexBuffer vb, int[] remap ) {
+        int comps = vb.getNumComponents();
+        if( vb.getFormat() == VertexBuffer.Format.Half ) {
+            comps *= 2;
+        }
+        Buffer source = vb.getData();
+        int count = remap.length;
+        Buffer result;
+        if( source instanceof FloatBuffer ) {
+            FloatBuffer in = (FloatBuffer)source;
+            FloatBuffer out = BufferUtils.createFloatBuffer(count * comps);
+            for( int v = 0; v < count; v++ ) {
+                for( int c = 0; c < comps; c++ ) {
+                    out.put(remap[v] * comps + c, in.get(v * comps + c));
+                }
+            }
+            result = out;
+        } else if( source instanceof ShortBuffer ) {
+            ShortBuffer in = (ShortBuffer)source;
+            ShortBuffer out = BufferUtils.createShortBuffer(count * comps);
+            for( int v = 0; v < count; v++ ) {
+                for( int c = 0; c < comps; c++ ) {
+                    out.put(remap[v] * comps + c, in.get(v * comps + c));
+                }
+            }
+            result = out;
+        } else if( source instanceof IntBuffer ) {
+            IntBuffer in = (IntBuffer)source;
+            IntBuffer out = BufferUtils.createIntBuffer(count * comps);
+            for( int v = 0; v < count; v++ ) {
+                for( int c = 0; c < comps; c++ ) {
+                    out.put(remap[v] * comps + c, in.get(v * comps + c));
+                }
+            }
+            result = out;
+        } else if( source instanceof ByteBuffer ) {
+            ByteBuffer in = (ByteBuffer)source;
+            ByteBuffer out = BufferUtils.createByteBuffer(count * comps);
+            for( int v = 0; v < count; v++ ) {
+                for( int c = 0; c < comps; c++ ) {
+                    out.put(remap[v] * comps + c, in.get(v * comps + c));
+                }
+            }
+            result = out;
+        } else if( source instanceof DoubleBuffer ) {
+            DoubleBuffer in = (DoubleBuffer)source;
+            DoubleBuffer out = BufferUtils.createDoubleBuffer(count * comps);
+            for( int v = 0; v < count; v++ ) {
+                for( int c = 0; c < comps; c++ ) {
+                    out.put(remap[v] * comps + c, in.get(v * comps + c));
+                }
+            }
+            result = out;
+        } else {
+            throw new UnsupportedOperationException("Unsupported buffer:" + source);
+        }
+        result.clear();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[cacheSize=" + cacheSize + ", shrinkIndexes=" + shrinkIndexes + "]";
+    }
+
+    protected static class Result {
+        long triangles;
+        long missesBefore;
+        long missesAfter;
+    }
+}
@@ -61,11 +61,16 @@ public class GltfExtrasLoader implements ExtrasLoader {
     
     /**
      *  Utility method to create a ModelKey that is configured to use this
-     *  ExtrasLoader.
+     *  ExtrasLoader.  The key is also given its own material adapters
+     *  because the GltfLoader's default adapters are static, keep state
+     *  while reading a material, and so cannot be used to load models
+     *  from more than one thread at a time.
      */
     public static GltfModelKey createModelKey( String path ) {
         GltfModelKey key = new GltfModelKey(path);
         key.setExtrasLoader(INSTANCE);
+        key.registerMaterialAdapter("pbrMetallicRoughness", new PBRMetalRoughMaterialAdapter());
+        key.registerMaterialAdapter("pbrSpecularGlossiness", new PBRSpecGlossMaterialAdapter());
         return key;
     } 
     
@@ -0,0 +1,144 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec.gltf;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import com.jme3.asset.*;
+
+import com.simsilica.jmec.FileAssetLocator;
+
+/**
+ *  Replaces JME's GLTF BinLoader to memory map .bin files that come
+ *  from a FileAssetLocator.  The returned stream can still be read
+ *  like a regular stream but MappedGltfLoader will use the mapped
+ *  buffer directly.  Assets that are not plain files are returned as
+ *  regular streams.
+ *
+ *  @author    Paul Speed
+ */
+public class MappedBinLoader implements AssetLoader {
+
+    @Override
+    public Object load( AssetInfo info ) throws IOException {
+        if( info instanceof FileAssetLocator.FileAssetInfo ) {
+            File file = ((FileAssetLocator.FileAssetInfo)info).getFile();
+            if( canMap(file) ) {
+                return new MappedStream(map(file));
+            }
+        }
+        return info.openStream();
+    }
+
+    /**
+     *  Returns true if the file is small enough to be mapped as a single
+     *  ByteBuffer, ie: no larger than Integer.MAX_VALUE bytes.
+     */
+    public static boolean canMap( File file ) {
+        return file.length() <= Integer.MAX_VALUE;
+    }
+
+    /**
+     *  Maps the whole file read-only in little endian order.  The mapping
+     *  remains valid until the buffer is garbage collected or freed.
+     *  Files larger than Integer.MAX_VALUE bytes cannot be mapped, see
+     *  canMap().
+     */
+    public static ByteBuffer map( File file ) throws IOException {
+        try( FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ) ) {
+            if( channel.size() > Integer.MAX_VALUE ) {
+                throw new IOException("File too large to map:" + file + " size:" + channel.size());
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     *  An InputStream over a mapped buffer.
+     */
+    public static class MappedStream extends InputStream {
+        private final ByteBuffer buffer;
+        private final ByteBuffer stream;
+
+        public MappedStream( ByteBuffer buffer ) {
+            this.buffer = buffer;
+            this.stream = buffer.duplicate();
+        }
+
+        /**
+         *  Returns the whole mapped buffer independent of how much of
+         *  the stream has been read.
+         */
+        public ByteBuffer getBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public int read() {
+            return stream.hasRemaining() ? stream.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read( byte[] b, int off, int len ) {
+            if( len == 0 ) {
+                return 0;
+            }
+            if( !stream.hasRemaining() ) {
+                return -1;
+            }
+            len = Math.min(len, stream.remaining());
+            stream.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public long skip( long n ) {
+            int skip = (int)Math.max(0, Math.min(n, stream.remaining()));
+            stream.position(stream.position() + skip);
+            return skip;
+        }
+
+        @Override
+        public int available() {
+            return stream.remaining();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec.gltf;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import com.google.common.io.ByteStreams;
+
+import com.jme3.asset.*;
+
+import com.simsilica.jmec.FileAssetLocator;
+
+/**
+ *  A GLB loader that memory maps the .glb file and reads vertex data
+ *  straight from the mapped binary chunk.  See MappedGltfLoader.  GLB files
+ *  that are not regular files are read into memory like JME's GlbLoader.
+ *
+ *  @author    Paul Speed
+ */
+public class MappedGlbLoader extends MappedGltfLoader {
+
+    private static final int GLTF_MAGIC = 0x46546C67;
+    private static final int JSON_TYPE = 0x4E4F534A;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    public MappedGlbLoader() {
+    }
+
+    @Override
+    public Object load( AssetInfo assetInfo ) throws IOException {
+        chunks.clear();
+        ByteBuffer data;
+        if( assetInfo instanceof FileAssetLocator.FileAssetInfo
+            && MappedBinLoader.canMap(((FileAssetLocator.FileAssetInfo)assetInfo).getFile()) ) {
+            data = MappedBinLoader.map(((FileAssetLocator.FileAssetInfo)assetInfo).getFile());
+            addMapping(data);
+        } else {
+            try( InputStream in = assetInfo.openStream() ) {
+                data = ByteBuffer.wrap(ByteStreams.toByteArray(in)).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        try {
+            int magic = data.getInt();
+            if( magic != GLTF_MAGIC ) {
+                throw new AssetLoadException("Not a GLB file:" + assetInfo.getKey());
+            }
+            data.getInt(); // version
+            int length = data.getInt() - 12;
+            byte[] json = null;
+            while( length > 0 ) {
+                int chunkLength = data.getInt();
+                int chunkType = data.getInt();
+                ByteBuffer chunk = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+                chunk.limit(chunkLength);
+                if( chunkType == JSON_TYPE ) {
+                    json = new byte[chunkLength];
+                    chunk.get(json);
+                } else {
+                    chunks.add(chunk);
+                }
+                data.position(data.position() + chunkLength);
+                length -= chunkLength + 8;
+            }
+            if( json == null ) {
+                throw new AssetLoadException("No JSON chunk in GLB file:" + assetInfo.getKey());
+            }
+            return loadFromStream(assetInfo, new ByteArrayInputStream(json));
+        } finally {
+            chunks.clear();
+            releaseMappings();
+        }
+    }
+
+    @Override
+    protected ByteBuffer getBinaryChunk( int bufferIndex ) {
+        return chunks.get(bufferIndex);
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2026, Simsilica, LLC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.simsilica.jmec.gltf;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.*;
+import java.util.*;
+
+import org.slf4j.*;
+
+import com.google.gson.*;
+
+import com.jme3.asset.*;
+import com.jme3.asset.cache.AssetCache;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.plugins.gltf.*;
+
+import com.simsilica.jmec.DirectBuffers;
+
+/**
+ *  A GltfLoader that reads vertex data straight from memory mapped .bin
+ *  files (see MappedBinLoader) instead of first reading each whole buffer
+ *  into a byte[] on the heap.  Vertex buffers are copied directly from the
+ *  mapping into their direct buffers.  Other data like animations and
+ *  embedded images only copies the bytes of its own buffer view.
+ *
+ *  <p>The mappings are released as soon as the model has loaded.  Buffers
+ *  that use extensions, extras, or data: URIs are loaded by the regular
+ *  GltfLoader code.</p>
+ *
+ *  @author    Paul Speed
+ */
+public class MappedGltfLoader extends GltfLoader {
+
+    static Logger log = LoggerFactory.getLogger(MappedGltfLoader.class);
+
+    private static final Field bufferViewsField = getField("bufferViews");
+    private static final Field buffersField = getField("buffers");
+
+    private final Map<Integer, ByteBuffer> sources = new HashMap<>();
+    private final List<ByteBuffer> mapped = new ArrayList<>();
+    private AssetInfo info;
+
+    public MappedGltfLoader() {
+    }
+
+    private static Field getField( String name ) {
+        try {
+            Field field = GltfLoader.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch( NoSuchFieldException e ) {
+            throw new RuntimeException("Error accessing GltfLoader." + name, e);
+        }
+    }
+
+    @Override
+    protected Object loadFromStream( AssetInfo assetInfo, InputStream stream ) throws IOException {
+        this.info = assetInfo;
+        try {
+            return super.loadFromStream(assetInfo, stream);
+        } finally {
+            releaseMappings();
+            info = null;
+        }
+    }
+
+    /**
+     *  Records a buffer that was mapped for this load so that it can be
+     *  released when the load is done.
+     */
+    protected void addMapping( ByteBuffer buffer ) {
+        mapped.add(buffer);
+    }
+
+    protected void releaseMappings() {
+        sources.clear();
+        Set<Object> freed = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        long total = 0;
+        for( ByteBuffer buffer : mapped ) {
+            total += DirectBuffers.free(buffer, freed);
+        }
+        mapped.clear();
+        if( total > 0 && log.isTraceEnabled() ) {
+            log.trace("Released " + total + " mapped bytes for:" + (info == null ? null : info.getKey()));
+        }
+    }
+
+    /**
+     *  Returns the GLB binary chunk for buffers with no uri.  The regular
+     *  GLTF format has no such chunk and returns null.
+     */
+    protected ByteBuffer getBinaryChunk( int bufferIndex ) {
+        return null;
+    }
+
+    @Override
+    public Object readBuffer( Integer bufferViewIndex, int byteOffset, int count, Object store,
+                              int numComponents, VertexBuffer.Format format ) throws IOException {
+        JsonObject bufferView = getArray(bufferViewsField).get(bufferViewIndex).getAsJsonObject();
+        Integer bufferIndex = GltfUtils.getAsInteger(bufferView, "buffer");
+        ByteBuffer source = null;
+        if( bufferIndex != null && !hasCustomContent(bufferView) ) {
+            source = getSource(bufferIndex);
+        }
+        if( source == null ) {
+            return super.readBuffer(bufferViewIndex, byteOffset, count, store, numComponents, format);
+        }
+
+        int bvByteOffset = GltfUtils.getAsInteger(bufferView, "byteOffset", 0);
+        Integer byteLength = GltfUtils.getAsInteger(bufferView, "byteLength");
+        GltfUtils.assertNotNull(byteLength, "No byte length defined for bufferView " + bufferViewIndex);
+        int byteStride = GltfUtils.getAsInteger(bufferView, "byteStride", 0);
+
+        if( store instanceof Buffer && populate((Buffer)store, source, count, byteOffset + bvByteOffset,
+                                                byteStride, numComponents, format) ) {
+            return store;
+        }
+
+        // Everything else is small enough to go through the regular code
+        // with just this buffer view's bytes
+        byte[] view = new byte[byteLength];
+        ByteBuffer src = source.duplicate();
+        src.position(bvByteOffset);
+        src.get(view);
+        if( store == null ) {
+            store = new byte[byteLength];
+        }
+        if( count == -1 ) {
+            count = byteLength;
+        }
+        GltfUtils.populateBuffer(store, view, count, byteOffset, byteStride, numComponents, format);
+        return store;
+    }
+
+    /**
+     *  Copies the elements directly from the source into the direct buffer,
+     *  the same as GltfUtils.populateBuffer() would.  Returns false if the
+     *  buffer needs conversions that are left to GltfUtils.
+     */
+    protected boolean populate( Buffer buffer, ByteBuffer source, int count, int byteOffset,
+                                int byteStride, int numComponents, VertexBuffer.Format format ) {
+        if( buffer instanceof FloatBuffer && format != VertexBuffer.Format.Float ) {
+            // Normalized values, GltfUtils has its own ideas about these
+            return false;
+        }
+        int componentSize = format.getComponentSize();
+        int dataLength = componentSize * numComponents;
+        int stride = Math.max(dataLength, byteStride);
+
+        ByteBuffer src = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        buffer.clear();
+        if( stride == dataLength ) {
+            // Tightly packed so we can copy it all at once
+            src.position(byteOffset);
+            src.limit(byteOffset + count * dataLength);
+            if( buffer instanceof ByteBuffer ) {
+                // GltfUtils leaves byte buffers at the end
+                ((ByteBuffer)buffer).put(src);
+                return true;
+            } else if( buffer instanceof ShortBuffer ) {
+                ((ShortBuffer)buffer).put(src.asShortBuffer());
+            } else if( buffer instanceof IntBuffer ) {
+                ((IntBuffer)buffer).put(src.asIntBuffer());
+            } else if( buffer instanceof FloatBuffer ) {
+                ((FloatBuffer)buffer).put(src.asFloatBuffer());
+            } else {
+                return false;
+            }
+            buffer.rewind();
+            return true;
+        }
+
+        int end = count * stride + byteOffset;
+        if( buffer instanceof ByteBuffer ) {
+            ByteBuffer target = (ByteBuffer)buffer;
+            for( int index = byteOffset; index < end; index += stride ) {
+                for( int i = 0; i < numComponents; i++ ) {
+                    target.put(src.get(index + i));
+                }
+            }
+            return true;
+        } else if( buffer instanceof ShortBuffer ) {
+            ShortBuffer target = (ShortBuffer)buffer;
+            for( int index = byteOffset; index < end; index += stride ) {
+                for( int i = 0; i < numComponents; i++ ) {
+                    target.put(src.getShort(index + i * 2));
+                }
+            }
+        } else if( buffer instanceof IntBuffer ) {
+            IntBuffer target = (IntBuffer)buffer;
+            for( int index = byteOffset; index < end; index += stride ) {
+                for( int i = 0; i < numComponents; i++ ) {
+                    target.put(src.getInt(index + i * 4));
+                }
+            }
+        } else if( buffer instanceof FloatBuffer ) {
+            FloatBuffer target = (FloatBuffer)buffer;
+            for( int index = byteOffset; index < end; index += stride ) {
+                for( int i = 0; i < numComponents; i++ ) {
+                    target.put(src.getFloat(index + i * 4));
+                }
+            }
+        } else {
+            return false;
+        }
+        buffer.rewind();
+        return true;
+    }
+
+    @Override
+    protected byte[] getBytes( int bufferIndex, String uri, Integer bufferLength ) throws IOException {
+        ByteBuffer chunk = null;
+        if( uri == null ) {
+            chunk = getBinaryChunk(bufferIndex);
+        } else if( uri.endsWith(".bin") && !uri.startsWith("data:") ) {
+            // Load it here instead of in GltfLoader so that a mapped
+            // buffer is released with the others
+            GltfUtils.assertNotNull(bufferLength, "No byteLength defined for buffer " + bufferIndex);
+            Object data = loadBin(uri);
+            if( !(data instanceof MappedBinLoader.MappedStream) ) {
+                try( DataInputStream in = new DataInputStream((InputStream)data) ) {
+                    byte[] result = new byte[bufferLength];
+                    in.readFully(result);
+                    return result;
+                }
+            }
+            chunk = ((MappedBinLoader.MappedStream)data).getBuffer().duplicate();
+            chunk.limit(bufferLength);
+        }
+        if( chunk == null ) {
+            return super.getBytes(bufferIndex, uri, bufferLength);
+        }
+        byte[] result = new byte[chunk.remaining()];
+        chunk.duplicate().get(result);
+        return result;
+    }
+
+    /**
+     *  Loads the .bin file relative to the model.  Returns a MappedStream if
+     *  the file was mapped, which is then released when the model has loaded,
+     *  or a regular InputStream otherwise.
+     */
+    protected Object loadBin( String uri ) {
+        Object data = info.getManager().loadAsset(new MappedKey(info.getKey().getFolder() + uri));
+        if( data instanceof MappedBinLoader.MappedStream ) {
+            addMapping(((MappedBinLoader.MappedStream)data).getBuffer());
+        }
+        return data;
+    }
+
+    /**
+     *  Returns the buffer's data as a ByteBuffer, mapped when possible, or null
+     *  if the buffer has to be loaded by GltfLoader itself.
+     */
+    protected ByteBuffer getSource( int bufferIndex ) throws IOException {
+        ByteBuffer result = sources.get(bufferIndex);
+        if( result != null ) {
+            return result;
+        }
+        JsonObject buffer = getArray(buffersField).get(bufferIndex).getAsJsonObject();
+        if( hasCustomContent(buffer) ) {
+            return null;
+        }
+        String uri = GltfUtils.getAsString(buffer, "uri");
+        if( uri == null ) {
+            result = getBinaryChunk(bufferIndex);
+        } else if( uri.endsWith(".bin") && !uri.startsWith("data:") ) {
+            Object data = loadBin(uri);
+            if( data instanceof MappedBinLoader.MappedStream ) {
+                result = ((MappedBinLoader.MappedStream)data).getBuffer();
+            } else {
+                // Not a file so read it the normal way
+                try( DataInputStream in = new DataInputStream((InputStream)data) ) {
+                    Integer length = GltfUtils.getAsInteger(buffer, "byteLength");
+                    GltfUtils.assertNotNull(length, "No byteLength defined for buffer " + bufferIndex);
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    result = ByteBuffer.wrap(bytes);
+                }
+            }
+        }
+        if( result != null ) {
+            sources.put(bufferIndex, result);
+        }
+        return result;
+    }
+
+    private static boolean hasCustomContent( JsonObject json ) {
+        return json.has("extensions") || json.has("extras");
+    }
+
+    private JsonArray getArray( Field field ) {
+        try {
+            return (JsonArray)field.get(this);
+        } catch( IllegalAccessException e ) {
+            throw new RuntimeException("Error accessing GltfLoader." + field.getName(), e);
+        }
+    }
+
+    /**
+     *  Like GLTF's own (package private) BinDataKey, the loaded streams
+     *  should never be cached.
+     */
+    private static class MappedKey extends AssetKey<Object> {
+        public MappedKey( String name ) {
+            super(name);
+        }
+
+        @Override
+        public Class<? extends AssetCache> getCacheType() {
+            return null;
+        }
+    }
+}
@@ -126,7 +126,9 @@ public class JmecNode extends Node {
     public void updateLogicalState( float tpf ) {
 
         if( updateDependencies() ) {
-            // Remove the old model
+            // Remove the old model.  Its buffers are left for the garbage
+            // collector because the renderer may still have them uploaded
+            // and the asset manager may share them with the new model.
             if( model != null && model.getModelRoot() != null ) {
                 model.getModelRoot().removeFromParent();
             }